@@ -0,0 +1,124 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Helpers for reading reply bytes in place, without decoding them to Strings first.
+ */
+final class AsciiBytes {
+
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private AsciiBytes() {
+    }
+
+    static int hash(ByteBuffer bytes) {
+        int h = 1;
+        for (int i = bytes.position(); i < bytes.limit(); i++) {
+            h = 31 * h + bytes.get(i);
+        }
+        return h;
+    }
+
+    static int hash(byte[] bytes) {
+        int h = 1;
+        for (byte b : bytes) {
+            h = 31 * h + b;
+        }
+        return h;
+    }
+
+    static boolean equals(byte[] expected, ByteBuffer bytes) {
+        int position = bytes.position();
+        if (expected.length != bytes.limit() - position) return false;
+        for (int i = 0; i < expected.length; i++) {
+            if (expected[i] != bytes.get(position + i)) return false;
+        }
+        return true;
+    }
+
+    static byte[] toArray(ByteBuffer bytes) {
+        byte[] array = new byte[bytes.remaining()];
+        bytes.duplicate().get(array);
+        return array;
+    }
+
+    /**
+     * Text of a value from a generic (nested multi) reply: bulk strings arrive as buffers,
+     * integers and doubles as boxed numbers.
+     */
+    static String asString(Object value) {
+        if (value instanceof ByteBuffer buffer) {
+            return StandardCharsets.UTF_8.decode(buffer.duplicate()).toString();
+        }
+        return String.valueOf(value);
+    }
+
+    /**
+     * Parses a RediSearch numeric reply value into the row. Plain integers become longs; decimals
+     * with at most 18 significant digits and 22 fractional digits take the exact fast path, anything
+     * else (exponents, inf) falls back to {@link Double#parseDouble}. Unparsable values stay null.
+     */
+    static void decodeNumber(ByteBuffer bytes, TypedRow row, int slot) {
+        int i = bytes.position();
+        int end = bytes.limit();
+        if (i == end) return;
+
+        boolean negative = false;
+        byte b = bytes.get(i);
+        if (b == '-' || b == '+') {
+            negative = b == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean dot = false;
+        boolean seenDigit = false;
+        for (; i < end; i++) {
+            b = bytes.get(i);
+            if (b >= '0' && b <= '9') {
+                seenDigit = true;
+                if (dot) scale++;
+                if (mantissa == 0 && b == '0') continue;
+                if (++digits > 18) {
+                    decodeSlow(bytes, row, slot);
+                    return;
+                }
+                mantissa = mantissa * 10 + (b - '0');
+            } else if (b == '.' && !dot) {
+                dot = true;
+            } else {
+                decodeSlow(bytes, row, slot);
+                return;
+            }
+        }
+        if (!seenDigit) {
+            decodeSlow(bytes, row, slot);
+            return;
+        }
+
+        if (!dot) {
+            row.putLong(slot, negative ? -mantissa : mantissa);
+        } else if (mantissa < (1L << 53) && scale < POW10.length) {
+            double value = mantissa / POW10[scale];
+            row.putDouble(slot, negative ? -value : value);
+        } else {
+            decodeSlow(bytes, row, slot);
+        }
+    }
+
+    private static void decodeSlow(ByteBuffer bytes, TypedRow row, int slot) {
+        String text = StandardCharsets.US_ASCII.decode(bytes.duplicate()).toString();
+        try {
+            row.putDouble(slot, Double.parseDouble(text));
+        } catch (NumberFormatException e) {
+            // Not a number; RediSearch would not have indexed it either
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package org.example;
+
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.api.StatefulRedisConnection;
+import net.sf.jsqlparser.JSQLParserException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Loads documents into Redis hashes as batched, pipelined {@code HSET}s. Batches are spread
+ * round-robin over the loader's own connections with one batch in flight per connection, so
+ * memory is bounded by {@code batchSize * connections} and the load runs at network rather than
+ * round-trip speed. The connections have auto-flush off and each batch is sent in a single flush;
+ * they are opened by {@link #open} and closed with the loader.
+ * <p>
+ * Values are encoded like {@link FieldEncoder}; VECTOR fields take a {@code float[]} (or a
+ * {@link ByteBuffer}) and are written as little-endian FLOAT32 blobs. Each row's key comes from
+ * its {@value #KEY_COLUMN} column. Keys of INSERT statements are prefixed with their table's key
+ * prefix, as {@link IndexDdl} declares it, so tables do not overwrite each other. CohQL
+ * {@code INSERT INTO cache KEY k VALUE v} statements store their literal value in the
+ * {@value #VALUE_COLUMN} field.
+ */
+public class BulkLoader implements AutoCloseable {
+
+    public static final String KEY_COLUMN = "__key";
+    public static final String VALUE_COLUMN = "__value";
+
+    private final CohQLToRedisTranslator translator;
+    private final List<StatefulRedisConnection<String, ByteBuffer>> connections;
+    private final Map<String, String> prefixesByTable;
+    private final FieldEncoder encoder;
+    private final int batchSize;
+
+    BulkLoader(CohQLToRedisTranslator translator,
+               List<StatefulRedisConnection<String, ByteBuffer>> connections,
+               Map<String, String> prefixesByTable,
+               int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        this.translator = translator;
+        this.connections = List.copyOf(connections);
+        this.prefixesByTable = Map.copyOf(prefixesByTable);
+        this.encoder = new FieldEncoder(translator.getFieldTypes());
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Opens {@code connections} connections with auto-flush off; the client should be configured
+     * for RESP2.
+     *
+     * @param prefixesByTable key prefix of each table's hashes; defaults to {@code "<table>:"}
+     * @param connections     batches are written in parallel, one per connection
+     * @param batchSize       HSETs per pipelined batch
+     */
+    public static BulkLoader open(CohQLToRedisTranslator translator, RedisClient client,
+                                  Map<String, String> prefixesByTable, int connections, int batchSize) {
+        if (connections < 1) {
+            throw new IllegalArgumentException("connections must be positive: " + connections);
+        }
+        List<StatefulRedisConnection<String, ByteBuffer>> opened = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            StatefulRedisConnection<String, ByteBuffer> connection = client.connect(ByteBufferCodec.INSTANCE);
+            connection.setAutoFlushCommands(false);
+            opened.add(connection);
+        }
+        return new BulkLoader(translator, opened, prefixesByTable, batchSize);
+    }
+
+    /**
+     * Documents written and pipelined batches sent.
+     */
+    public record LoadResult(long documents, int batches) {
+    }
+
+    public LoadResult execute(String cohql) throws JSQLParserException {
+        return load(translator.translateInsert(cohql));
+    }
+
+    public LoadResult load(InsertPlan plan) {
+        Iterator<InsertPlan.Document> documents = plan.documents().iterator();
+        return write(new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return documents.hasNext();
+            }
+
+            @Override
+            public Hash next() {
+                InsertPlan.Document document = documents.next();
+                Map<String, ByteBuffer> fields = new LinkedHashMap<>();
+                document.fields().forEach((field, value) -> fields.put(field, utf8(value)));
+                return new Hash(keyFor(plan.table(), document.key()), fields);
+            }
+        });
+    }
+
+    /**
+     * The Redis key of a row of {@code table}.
+     */
+    String keyFor(String table, String key) {
+        return prefixesByTable.getOrDefault(table, table + ":") + key;
+    }
+
+    /**
+     * Loads rows given as field maps, each holding its key under {@value #KEY_COLUMN}. The
+     * iterator is consumed lazily, so rows can be streamed from any source.
+     */
+    public LoadResult load(Iterator<? extends Map<String, ?>> rows) {
+        return write(new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
+            }
+
+            @Override
+            public Hash next() {
+                return hash(rows.next());
+            }
+        });
+    }
+
+    /**
+     * Streams a CSV file whose header row names the fields, including {@value #KEY_COLUMN}.
+     * Values may be double-quoted with {@code ""} escapes; empty unquoted values are null.
+     */
+    public LoadResult loadCsv(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null) return new LoadResult(0, 0);
+            List<String> columns = parseCsvLine(header);
+            if (!columns.contains(KEY_COLUMN)) {
+                throw new IllegalArgumentException(file + " has no " + KEY_COLUMN + " column");
+            }
+            Iterator<Map<String, String>> rows = new Iterator<>() {
+                private String line = nextLine();
+
+                private String nextLine() {
+                    try {
+                        String next;
+                        do {
+                            next = reader.readLine();
+                        } while (next != null && next.isBlank());
+                        return next;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return line != null;
+                }
+
+                @Override
+                public Map<String, String> next() {
+                    if (line == null) throw new NoSuchElementException();
+                    List<String> values = parseCsvLine(line);
+                    if (values.size() != columns.size()) {
+                        throw new IllegalArgumentException("Expected " + columns.size() + " values but got " + values.size() + ": " + line);
+                    }
+                    Map<String, String> row = new HashMap<>();
+                    for (int i = 0; i < columns.size(); i++) {
+                        row.put(columns.get(i), values.get(i));
+                    }
+                    line = nextLine();
+                    return row;
+                }
+            };
+            try {
+                return load(rows);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private record Hash(String key, Map<String, ByteBuffer> fields) {
+    }
+
+    private Hash hash(Map<String, ?> row) {
+        Object key = row.get(KEY_COLUMN);
+        if (key == null) {
+            throw new IllegalArgumentException("Row has no " + KEY_COLUMN + ": " + row);
+        }
+        Map<String, ByteBuffer> fields = new LinkedHashMap<>();
+        for (Map.Entry<String, ?> field : row.entrySet()) {
+            if (field.getKey().equals(KEY_COLUMN) || field.getValue() == null) continue;
+            fields.put(field.getKey(), encode(field.getKey(), field.getValue()));
+        }
+        return new Hash(key.toString(), fields);
+    }
+
+    ByteBuffer encode(String field, Object value) {
+        if (CohQLToRedisTranslator.FieldType.VECTOR.name().equals(translator.getFieldTypes().get(field))) {
+            if (!(value instanceof float[] || value instanceof ByteBuffer)) {
+                throw new IllegalArgumentException("VECTOR field " + field + " needs a float[] or ByteBuffer value");
+            }
+            return RedisQueryExecutor.encodeParameter(value);
+        }
+        return utf8(encoder.encode(field, value));
+    }
+
+    private LoadResult write(Iterator<Hash> hashes) {
+        int lanes = connections.size();
+        List<List<RedisFuture<Long>>> inFlight = new ArrayList<>(Collections.nCopies(lanes, List.of()));
+        long documents = 0;
+        int batches = 0;
+        int lane = 0;
+        List<RedisFuture<Long>> batch = null;
+        try {
+            while (hashes.hasNext()) {
+                Hash hash = hashes.next();
+                // HSET needs at least one field; a row of nulls has nothing to write
+                if (hash.fields().isEmpty()) continue;
+                if (batch == null) {
+                    await(inFlight.get(lane));
+                    batch = new ArrayList<>(batchSize);
+                    inFlight.set(lane, batch);
+                }
+                batch.add(connections.get(lane).async().hset(hash.key(), hash.fields()));
+                documents++;
+                if (batch.size() == batchSize) {
+                    connections.get(lane).flushCommands();
+                    batches++;
+                    batch = null;
+                    lane = (lane + 1) % lanes;
+                }
+            }
+            if (batch != null) {
+                connections.get(lane).flushCommands();
+                batches++;
+                batch = null;
+            }
+            for (List<RedisFuture<Long>> pending : inFlight) {
+                await(pending);
+            }
+        } catch (RuntimeException e) {
+            if (batch != null) {
+                // Drop the half-built batch; cancelled commands are skipped when the buffer is flushed
+                batch.forEach(future -> future.cancel(false));
+                connections.get(lane).flushCommands();
+            }
+            throw e;
+        }
+        return new LoadResult(documents, batches);
+    }
+
+    private void await(List<RedisFuture<Long>> batch) {
+        if (batch.isEmpty()) return;
+        LettuceFutures.awaitAll(connections.get(0).getTimeout(), batch.toArray(new RedisFuture<?>[0]));
+        for (RedisFuture<Long> future : batch) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while loading", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("HSET batch failed", e.getCause());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        connections.forEach(StatefulRedisConnection::close);
+    }
+
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                values.add(value.isEmpty() && !wasQuoted ? null : value.toString());
+                value.setLength(0);
+                wasQuoted = false;
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.isEmpty() && !wasQuoted ? null : value.toString());
+        return values;
+    }
+
+    private static ByteBuffer utf8(String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,37 @@
+package org.example;
+
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * UTF-8 keys, raw values. Values are only copied when decoded through the codec;
+ * {@link TypedRowOutput} reads the reply buffers in place and never calls it.
+ */
+public class ByteBufferCodec implements RedisCodec<String, ByteBuffer> {
+
+    public static final ByteBufferCodec INSTANCE = new ByteBufferCodec();
+
+    @Override
+    public String decodeKey(ByteBuffer bytes) {
+        return StringCodec.UTF8.decodeKey(bytes);
+    }
+
+    @Override
+    public ByteBuffer decodeValue(ByteBuffer bytes) {
+        ByteBuffer copy = ByteBuffer.allocate(bytes.remaining());
+        copy.put(bytes).flip();
+        return copy;
+    }
+
+    @Override
+    public ByteBuffer encodeKey(String key) {
+        return StringCodec.UTF8.encodeKey(key);
+    }
+
+    @Override
+    public ByteBuffer encodeValue(ByteBuffer value) {
+        return value == null ? ByteBuffer.allocate(0) : value.duplicate();
+    }
+}
@@ -0,0 +1,185 @@
+package org.example;
+
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisCommandTimeoutException;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.models.partitions.Partitions;
+import io.lettuce.core.cluster.models.partitions.RedisClusterNode;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs each search on every shard of a Redis Cluster in parallel and merges the partial results,
+ * for deployments where each shard indexes only its own keys. Where a search coordinator is
+ * present, point a single {@link ConnectionPool} at it instead; it does this merge server-side.
+ * <p>
+ * A page {@code LIMIT offset count} is requested from every shard as {@code LIMIT 0 offset+count},
+ * since any shard may hold the whole page. The shard pages are then ordered by the SORTBY field,
+ * or by the KNN distance for vector queries, and cut to the requested page. Without an order the
+ * shard pages are interleaved, which is as arbitrary as a single node's unsorted order. Totals are
+ * summed; a KNN total is capped at its {@code k}.
+ * <p>
+ * The shard list is fixed when the transport is opened. Searches are sent to those nodes as they
+ * are: MOVED replies and failovers are not followed, and after a resharding or a replica
+ * promotion the transport must be reopened, for example with
+ * {@link #open(RedisClusterClient, RedisClient, int)} after the cluster client has refreshed its
+ * partitions. A search that does not complete on every shard within the connection timeout fails
+ * with {@link RedisCommandTimeoutException} rather than returning a partial merge.
+ */
+public class ClusterSearchTransport implements SearchTransport, AutoCloseable {
+
+    private static final Pattern KNN = Pattern.compile("=>\\[KNN (\\d+) @(\\w+)");
+
+    private final List<ConnectionPool> shards;
+
+    public ClusterSearchTransport(List<ConnectionPool> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shards = List.copyOf(shards);
+    }
+
+    /**
+     * Opens {@code connectionsPerShard} connections to each shard primary.
+     */
+    public static ClusterSearchTransport open(RedisClient client, List<RedisURI> primaries, int connectionsPerShard) {
+        List<ConnectionPool> shards = new ArrayList<>(primaries.size());
+        for (RedisURI primary : primaries) {
+            shards.add(ConnectionPool.open(client, primary, connectionsPerShard));
+        }
+        return new ClusterSearchTransport(shards);
+    }
+
+    /**
+     * Opens {@code connectionsPerShard} connections to each primary that serves slots in the
+     * topology {@code clusterClient} has discovered; {@code client} opens the RESP2 connections.
+     */
+    public static ClusterSearchTransport open(RedisClusterClient clusterClient, RedisClient client,
+                                              int connectionsPerShard) {
+        return open(client, primaries(clusterClient.getPartitions()), connectionsPerShard);
+    }
+
+    static List<RedisURI> primaries(Partitions partitions) {
+        List<RedisURI> primaries = new ArrayList<>();
+        for (RedisClusterNode node : partitions) {
+            if (node.getRole().isUpstream() && !node.getSlots().isEmpty()) {
+                primaries.add(node.getUri());
+            }
+        }
+        return primaries;
+    }
+
+    @Override
+    public StatefulRedisConnection<String, ByteBuffer> connection() {
+        return shards.get(0).next();
+    }
+
+    @Override
+    public TypedSearchResults search(String index, SearchRequest request, Map<String, ?> params, RowSchema schema) {
+        SearchPage page = SearchPage.of(request.arguments());
+        List<String> shardArguments = SearchPage.withLimit(request.arguments(), 0, page.offset() + page.count());
+        if (page.sortBy() != null || KNN.matcher(request.query()).find()) {
+            // The merge needs the sort values, which NOCONTENT would leave out
+            shardArguments.remove("NOCONTENT");
+        }
+        List<RedisFuture<TypedSearchResults>> futures = new ArrayList<>(shards.size());
+        for (ConnectionPool shard : shards) {
+            futures.add(shard.next().async().dispatch(SearchCommand.FT_SEARCH,
+                    new TypedRowOutput(ByteBufferCodec.INSTANCE, schema),
+                    RedisQueryExecutor.searchArgs(index, request, params, shardArguments)));
+        }
+        Duration timeout = connection().getTimeout();
+        if (!LettuceFutures.awaitAll(timeout, futures.toArray(new RedisFuture<?>[0]))) {
+            futures.forEach(future -> future.cancel(false));
+            throw new RedisCommandTimeoutException("Shard search did not complete within " + timeout);
+        }
+
+        List<TypedSearchResults> partials = new ArrayList<>(futures.size());
+        for (RedisFuture<TypedSearchResults> future : futures) {
+            try {
+                partials.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while searching shards", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Shard search failed", e.getCause());
+            }
+        }
+        return merge(request, schema, partials);
+    }
+
+    /**
+     * Merges shard replies, each holding up to {@code offset+count} rows, into the requested page.
+     */
+    static TypedSearchResults merge(SearchRequest request, RowSchema schema, List<TypedSearchResults> partials) {
+        SearchPage page = SearchPage.of(request.arguments());
+        long total = 0;
+        List<TypedRow> rows = new ArrayList<>();
+        int longest = 0;
+        for (TypedSearchResults partial : partials) {
+            total += partial.total();
+            longest = Math.max(longest, partial.rows().size());
+        }
+        // Interleave first, so that rows without an order (or tied) alternate between shards
+        for (int i = 0; i < longest; i++) {
+            for (TypedSearchResults partial : partials) {
+                if (i < partial.rows().size()) rows.add(partial.rows().get(i));
+            }
+        }
+
+        Matcher knn = KNN.matcher(request.query());
+        Comparator<TypedRow> order = null;
+        if (page.sortBy() != null) {
+            order = comparator(schema, page.sortBy(), page.descending());
+        } else if (knn.find()) {
+            order = comparator(schema, RowSchema.scoreColumn(knn.group(2)), false);
+        }
+        if (knn.reset().find()) {
+            total = Math.min(total, Long.parseLong(knn.group(1)));
+        }
+        if (order != null) rows.sort(order);
+
+        int from = (int) Math.min(page.offset(), rows.size());
+        int to = (int) Math.min(page.offset() + page.count(), rows.size());
+        return new TypedSearchResults(total, Collections.unmodifiableList(new ArrayList<>(rows.subList(from, to))));
+    }
+
+    /**
+     * Orders by {@code field} with missing values last in either direction, or null if the field
+     * is not returned, in which case the shard pages stay interleaved. Text is compared ignoring
+     * case, as RediSearch sorts SORTABLE TEXT and TAG fields by their lower-cased form; fields
+     * declared {@code SORTABLE UNF} keep their case on a single node and may merge in another order.
+     */
+    private static Comparator<TypedRow> comparator(RowSchema schema, String field, boolean descending) {
+        if (!schema.contains(field)) return null;
+        boolean numeric = schema.type(schema.column(field)) == CohQLToRedisTranslator.FieldType.NUMERIC;
+        Comparator<TypedRow> order = numeric
+                ? Comparator.comparingDouble(row -> row.getDouble(field))
+                : Comparator.comparing(row -> row.getString(field), String.CASE_INSENSITIVE_ORDER);
+        if (descending) order = order.reversed();
+        Comparator<TypedRow> ordered = order;
+        return (a, b) -> {
+            boolean aNull = a.isNull(field), bNull = b.isNull(field);
+            if (aNull || bNull) return Boolean.compare(aNull, bNull);
+            return ordered.compare(a, b);
+        };
+    }
+
+    @Override
+    public void close() {
+        shards.forEach(ConnectionPool::close);
+    }
+}
@@ -9,49 +9,551 @@ import net.sf.jsqlparser.parser.CCJSqlParserUtil;
 import net.sf.jsqlparser.schema.Column;
 import net.sf.jsqlparser.schema.Table;
 import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.delete.Delete;
+import net.sf.jsqlparser.statement.insert.Insert;
+import net.sf.jsqlparser.statement.select.Limit;
+import net.sf.jsqlparser.statement.select.OrderByElement;
 import net.sf.jsqlparser.statement.select.PlainSelect;
 import net.sf.jsqlparser.statement.select.Select;
+import net.sf.jsqlparser.statement.select.SelectBody;
+import net.sf.jsqlparser.statement.select.SetOperationList;
+import net.sf.jsqlparser.statement.update.Update;
+import net.sf.jsqlparser.statement.update.UpdateSet;
+import net.sf.jsqlparser.statement.values.ValuesStatement;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public class CohQLToRedisTranslator {
 
+    // Compiled plans are kept per distinct CohQL text; beyond this many, the least recently used is dropped
+    static final int MAX_CACHED_PLANS = 10_000;
+    // Bump whenever translation output changes, so plans stored by older builds are not reused
+    static final int TRANSLATION_VERSION = 4;
+    static final double MAX_GEO_LATITUDE = 85.05112878;
+    private static final Set<String> GEO_UNITS = Set.of("m", "km", "mi", "ft");
+    private static final Set<String> GEOSHAPE_PREDICATES = Set.of("within", "contains", "intersects", "disjoint");
+    // CohQL's INSERT INTO cache KEY k VALUE v, with a string or numeric key literal
+    private static final Pattern COHQL_INSERT = Pattern.compile(
+            "\\s*INSERT\\s+INTO\\s+('(?:[^']|'')*'|\"[^\"]*\"|[\\w$.-]+)\\s+KEY\\s+(\\(?\\s*(?:'(?:[^']|'')*'|-?[\\d.]+)\\s*\\)?)"
+                    + "\\s+VALUE\\s+(.+?)\\s*;?\\s*",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    // A hint comment only counts directly after SELECT, never inside literals or later clauses
+    private static final Pattern HINT_COMMENT = Pattern.compile("\\s*SELECT\\s*/\\*\\+(.*?)\\*/",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
     private final Map<String, String> fieldTypes;
     private final String indexSuffix;
+    private final CostEstimator costEstimator;
+    private final LikePlanner likePlanner;
+    private volatile IndexAdvisor indexAdvisor;
+    private final Map<CompiledPlan.Key, CompiledPlan> plans = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<CompiledPlan.Key, CompiledPlan> eldest) {
+                    return size() > MAX_CACHED_PLANS;
+                }
+            });
 
 
     public CohQLToRedisTranslator(Map<String, String> fieldTypes, String indexSuffix) {
+        this(fieldTypes, indexSuffix, null);
+    }
+
+    public CohQLToRedisTranslator(Map<String, String> fieldTypes, String indexSuffix, CostEstimator costEstimator) {
+        this(fieldTypes, indexSuffix, costEstimator, new LikePlanner());
+    }
+
+    /**
+     * @param costEstimator optional; when set, intersections are reordered by selectivity and each
+     *                      {@link SearchRequest} carries an estimated cost for admission control
+     */
+    public CohQLToRedisTranslator(Map<String, String> fieldTypes, String indexSuffix,
+                                  CostEstimator costEstimator, LikePlanner likePlanner) {
         this.fieldTypes = fieldTypes;
         this.indexSuffix = indexSuffix == null ? "" : indexSuffix;
+        this.costEstimator = costEstimator;
+        this.likePlanner = likePlanner;
     }
 
     public String translate(String cohql) throws JSQLParserException {
+        // The query string alone cannot carry client filters, so general LIKE patterns are not narrowed
+        return translateRequest(cohql, false).toString();
+    }
+
+    public SearchRequest translateRequest(String cohql) throws JSQLParserException {
+        return translateRequest(cohql, true);
+    }
+
+    /**
+     * Translates with {@code defaults} filling in the FT.SEARCH options that the query's own hint
+     * comment leaves unset, e.g. a tenant's TIMEOUT.
+     */
+    public SearchRequest translateRequest(String cohql, QueryOptions defaults) throws JSQLParserException {
+        SearchRequest request = translateRequest(cohql, true);
+        return defaults == null || defaults.equals(QueryOptions.NONE) ? request : withDefaults(request, defaults);
+    }
+
+    private SearchRequest withDefaults(SearchRequest request, QueryOptions defaults) {
+        List<String> arguments = request.arguments();
+        QueryOptions missing = new QueryOptions(
+                arguments.contains("TIMEOUT") ? null : defaults.timeoutMillis(),
+                defaults.noContent() && !arguments.contains("NOCONTENT"),
+                defaults.verbatim() && !arguments.contains("VERBATIM"),
+                arguments.contains("INFIELDS") ? List.of() : defaults.inFields(),
+                arguments.contains("SLOP") ? null : defaults.slop(),
+                defaults.inOrder() && !arguments.contains("INORDER"),
+                arguments.contains("DIALECT") ? null : defaults.dialect());
+        validate(missing, request.clientFilters());
+
+        List<String> merged = new ArrayList<>(missing.arguments());
+        merged.addAll(arguments);
+        if (missing.dialect() != null) merged.addAll(List.of("DIALECT", missing.dialect().toString()));
+        return new SearchRequest(request.index(), request.query(), request.estimatedCost(), request.clientFilters(),
+                merged, request.parameters());
+    }
+
+    private void validate(QueryOptions options, List<SearchRequest.ClientFilter> clientFilters) {
+        for (String field : options.inFields()) {
+            if (!FieldType.TEXT.name().equals(fieldTypes.get(field))) {
+                throw new IllegalArgumentException("INFIELDS needs TEXT fields: " + field);
+            }
+        }
+        if (options.noContent() && !clientFilters.isEmpty()) {
+            throw new IllegalArgumentException("NOCONTENT cannot be combined with LIKE patterns filtered on the client: "
+                    + clientFilters.stream().map(SearchRequest.ClientFilter::field).toList());
+        }
+    }
+
+    private SearchRequest translateRequest(String cohql, boolean clientFiltering) throws JSQLParserException {
+        CompiledPlan plan = compiledPlan(cohql, clientFiltering);
+        likePlanner.record(plan.likePlans());
+        IndexAdvisor advisor = indexAdvisor;
+        if (advisor != null) advisor.observe(plan);
+        return plan.request();
+    }
+
+    /**
+     * The cached plan for {@code cohql}, compiled if missing or stale; nothing is recorded.
+     */
+    CompiledPlan compiledPlan(String cohql, boolean clientFiltering) throws JSQLParserException {
+        CompiledPlan.Key key = new CompiledPlan.Key(cohql, clientFiltering);
+        CompiledPlan plan = plans.get(key);
+        if (plan == null || stale(plan)) {
+            plan = compile(cohql, clientFiltering);
+            plans.put(key, plan);
+        }
+        return plan;
+    }
+
+    private CompiledPlan compile(String cohql, boolean clientFiltering) throws JSQLParserException {
+        ParsedQuery parsed = parse(cohql);
+        // Read before searchRequest narrows LIKE patterns and reorders the condition in place
+        List<String> fieldUses = IndexAdvisor.fieldUses(parsed);
+        List<String> likePlans = new ArrayList<>();
+        SearchRequest request = searchRequest(parsed.index(), parsed.where(), parsed.options(), parsed.hints(),
+                clientFiltering, new ArrayList<>(), likePlans);
+        return new CompiledPlan(cohql, clientFiltering, parsed.canonical(), request, likePlans, fieldUses,
+                System.currentTimeMillis());
+    }
+
+    /**
+     * A plan's cost and intersection order come from the statistics it was compiled with; once
+     * those may have been refreshed, the plan is compiled again. Loaded plans keep the time they
+     * were compiled, so a warm start reuses them until their statistics would have expired.
+     */
+    private boolean stale(CompiledPlan plan) {
+        if (costEstimator == null) return false;
+        return System.currentTimeMillis() - plan.compiledAtMillis()
+                >= TimeUnit.NANOSECONDS.toMillis(costEstimator.maxAgeNanos());
+    }
+
+    /**
+     * Translates without the plan cache and reports the parsed condition tree, the rewrites
+     * applied to it and the emitted request.
+     */
+    public QueryExplanation explain(String cohql) throws JSQLParserException {
+        ParsedQuery parsed = parse(cohql);
+        ExplainNode tree = parsed.where() == null ? new ExplainNode("*", List.of()) : ExplainNode.of(parsed.where());
+        List<String> rewrites = new ArrayList<>();
+        SearchRequest request = searchRequest(parsed.index(), parsed.where(), parsed.options(), parsed.hints(), true,
+                rewrites, new ArrayList<>());
+        return new QueryExplanation(cohql, parsed.canonical(), tree, rewrites, request, null);
+    }
+
+    /**
+     * Translates {@code DELETE FROM t WHERE ...} or {@code UPDATE t SET f = v, ... WHERE ...}. The
+     * selection keeps any client filters; assigned values must be literals. A trailing
+     * {@code LIMIT n} caps the documents changed; ORDER BY is rejected.
+     */
+    public MutationPlan translateMutation(String cohql) throws JSQLParserException {
+        Statement statement = CCJSqlParserUtil.parse(cohql);
+        MutationPlan.Kind kind;
+        Table table;
+        Expression where;
+        List<OrderByElement> orderBy;
+        Limit limit;
+        Map<String, String> assignments = new LinkedHashMap<>();
+        if (statement instanceof Delete delete) {
+            kind = MutationPlan.Kind.DELETE;
+            table = delete.getTable();
+            where = delete.getWhere();
+            orderBy = delete.getOrderByElements();
+            limit = delete.getLimit();
+        } else if (statement instanceof Update update) {
+            kind = MutationPlan.Kind.UPDATE;
+            table = update.getTable();
+            where = update.getWhere();
+            orderBy = update.getOrderByElements();
+            limit = update.getLimit();
+            FieldEncoder encoder = new FieldEncoder(fieldTypes);
+            for (UpdateSet set : update.getUpdateSets()) {
+                if (set.getColumns().size() != set.getExpressions().size()) {
+                    throw new UnsupportedOperationException("Unsupported SET clause: " + set);
+                }
+                for (int i = 0; i < set.getColumns().size(); i++) {
+                    String fieldName = set.getColumns().get(i).getColumnName();
+                    Expression value = set.getExpressions().get(i);
+                    if (!(value instanceof StringValue || value instanceof LongValue || value instanceof DoubleValue
+                            || value instanceof SignedExpression)) {
+                        throw new UnsupportedOperationException("SET only supports literal values: " + fieldName + " = " + value);
+                    }
+                    if (FieldType.VECTOR.name().equals(fieldTypes.get(fieldName))) {
+                        throw new UnsupportedOperationException("Cannot SET a VECTOR field: " + fieldName);
+                    }
+                    assignments.put(fieldName, encoder.encode(fieldName, formatValue(value)));
+                }
+            }
+        } else {
+            throw new UnsupportedOperationException("Expected DELETE or UPDATE: " + cohql);
+        }
+        // Matches are streamed from a cursor in index order, so there is no order to apply
+        if (orderBy != null && !orderBy.isEmpty()) {
+            throw new UnsupportedOperationException("ORDER BY is not supported in " + kind);
+        }
+
+        List<String> likePlans = new ArrayList<>();
+        SearchRequest selection = searchRequest(indexFor(table.getName()), where, List.of(), QueryOptions.NONE, true,
+                new ArrayList<>(), likePlans);
+        likePlanner.record(likePlans);
+        if (!selection.parameters().isEmpty() || !selection.arguments().isEmpty()) {
+            throw new UnsupportedOperationException("knn() and bound parameters are not supported in " + kind);
+        }
+        return new MutationPlan(kind, selection, assignments, mutationLimit(kind, limit));
+    }
+
+    private long mutationLimit(MutationPlan.Kind kind, Limit limit) {
+        if (limit == null) return MutationPlan.UNLIMITED;
+        if (limit.getOffset() != null || limit.getRowCount() == null) {
+            throw new UnsupportedOperationException("Only LIMIT n is supported in " + kind + ": " + limit);
+        }
+        String count = formatValue(limit.getRowCount());
+        if (!count.matches("\\d+")) {
+            throw new IllegalArgumentException("LIMIT must be a non-negative integer: " + limit);
+        }
+        return Long.parseLong(count);
+    }
+
+    /**
+     * Translates {@code INSERT INTO t (__key, f1, f2) VALUES (...), (...)}. The {@code __key}
+     * column gives each row's key within the table, which {@link BulkLoader} prefixes with the
+     * table's key prefix; values must be literals and NULLs are skipped.
+     * CohQL's {@code INSERT INTO cache KEY k VALUE v} is read as a single row whose literal
+     * value is stored in the {@value BulkLoader#VALUE_COLUMN} field.
+     */
+    public InsertPlan translateInsert(String cohql) throws JSQLParserException {
+        Statement statement = CCJSqlParserUtil.parse(rewriteKeyValueInsert(cohql));
+        if (!(statement instanceof Insert insert)) {
+            throw new UnsupportedOperationException("Expected INSERT: " + cohql);
+        }
+        if (insert.getColumns() == null || insert.getColumns().isEmpty()) {
+            throw new IllegalArgumentException("INSERT needs a column list including " + BulkLoader.KEY_COLUMN);
+        }
+        List<String> columns = new ArrayList<>();
+        for (Column column : insert.getColumns()) {
+            String fieldName = column.getColumnName();
+            if (FieldType.VECTOR.name().equals(fieldTypes.get(fieldName))) {
+                throw new UnsupportedOperationException("Load VECTOR fields through BulkLoader, not INSERT: " + fieldName);
+            }
+            columns.add(fieldName);
+        }
+        int keyColumn = columns.indexOf(BulkLoader.KEY_COLUMN);
+        if (keyColumn < 0) {
+            throw new IllegalArgumentException("INSERT needs a " + BulkLoader.KEY_COLUMN + " column: " + cohql);
+        }
+
+        List<List<Expression>> rows = valueRows(insert, cohql);
+        FieldEncoder encoder = new FieldEncoder(fieldTypes);
+        List<InsertPlan.Document> documents = new ArrayList<>(rows.size());
+        for (List<Expression> values : rows) {
+            if (values.size() != columns.size()) {
+                throw new IllegalArgumentException("Expected " + columns.size() + " values but got " + values.size() + ": " + values);
+            }
+            Map<String, String> fields = new LinkedHashMap<>();
+            for (int i = 0; i < values.size(); i++) {
+                Expression value = values.get(i);
+                while (value instanceof Parenthesis parenthesis) {
+                    value = parenthesis.getExpression();
+                }
+                if (value instanceof NullValue || i == keyColumn) continue;
+                if (!(value instanceof StringValue || value instanceof LongValue || value instanceof DoubleValue
+                        || value instanceof SignedExpression)) {
+                    throw new UnsupportedOperationException("INSERT only supports literal values: " + value);
+                }
+                fields.put(columns.get(i), encoder.encode(columns.get(i), formatValue(value)));
+            }
+            Expression key = values.get(keyColumn);
+            while (key instanceof Parenthesis parenthesis) {
+                key = parenthesis.getExpression();
+            }
+            if (key instanceof NullValue) {
+                throw new IllegalArgumentException("Null " + BulkLoader.KEY_COLUMN + " in row: " + values);
+            }
+            documents.add(new InsertPlan.Document(formatValue(key), fields));
+        }
+        return new InsertPlan(insert.getTable().getName().replaceAll("^\"|\"$", ""), documents);
+    }
+
+    /**
+     * Rewrites {@code INSERT INTO cache KEY k VALUE v} into the column form the parser reads;
+     * any other statement is returned unchanged. Values built with {@code new} are rejected.
+     */
+    static String rewriteKeyValueInsert(String cohql) {
+        Matcher matcher = COHQL_INSERT.matcher(cohql);
+        if (!matcher.matches()) return cohql;
+        if (matcher.group(3).regionMatches(true, 0, "new ", 0, 4)) {
+            throw new UnsupportedOperationException("Object values cannot be stored as a hash; list the fields as in "
+                    + "INSERT INTO t (" + BulkLoader.KEY_COLUMN + ", f1, ...) VALUES (...): " + cohql);
+        }
+        String cache = matcher.group(1);
+        if (cache.startsWith("'")) {
+            cache = cache.substring(1, cache.length() - 1).replace("''", "'");
+        } else if (cache.startsWith("\"")) {
+            cache = cache.substring(1, cache.length() - 1);
+        }
+        // Cache names may contain '-', so always quote them as an identifier
+        return "INSERT INTO \"" + cache + "\" (" + BulkLoader.KEY_COLUMN + ", " + BulkLoader.VALUE_COLUMN + ") VALUES ("
+                + matcher.group(2) + ", " + matcher.group(3) + ")";
+    }
+
+    /**
+     * The rows of {@code VALUES (...), (...)}: the parser yields one list holding a row constructor
+     * per row, or a parenthesized value per row when there is a single column.
+     */
+    private static List<List<Expression>> valueRows(Insert insert, String cohql) {
+        SelectBody body = insert.getSelect() == null ? null : insert.getSelect().getSelectBody();
+        if (body instanceof SetOperationList union && union.getSelects().size() == 1) {
+            body = union.getSelects().get(0);
+        }
+        if (!(body instanceof ValuesStatement values)) {
+            throw new UnsupportedOperationException("Only INSERT ... VALUES is supported: " + cohql);
+        }
+        List<List<Expression>> rows = new ArrayList<>();
+        if (values.getExpressions() instanceof MultiExpressionList multi) {
+            for (ExpressionList row : multi.getExpressionLists()) {
+                rows.add(row.getExpressions());
+            }
+        } else if (values.getExpressions() instanceof ExpressionList list) {
+            for (Expression row : list.getExpressions()) {
+                if (row instanceof RowConstructor constructor) {
+                    rows.add(constructor.getExprList().getExpressions());
+                } else if (row instanceof Parenthesis parenthesis) {
+                    rows.add(List.of(parenthesis.getExpression()));
+                } else {
+                    // VALUES a, b without parentheses is a single row
+                    return List.of(list.getExpressions());
+                }
+            }
+        }
+        return rows;
+    }
+
+    ParsedQuery parse(String cohql) throws JSQLParserException {
+        QueryOptions hints = QueryOptions.NONE;
+        Matcher hint = HINT_COMMENT.matcher(cohql);
+        if (hint.lookingAt()) {
+            hints = QueryOptions.parse(hint.group(1));
+            cohql = "SELECT " + cohql.substring(hint.end());
+        }
         try {
             // Attempt to parse as full SQL statement first
             Statement statement = CCJSqlParserUtil.parse(cohql);
             if (statement instanceof Select) {
+                String canonical = statement.toString();
                 Select select = (Select) statement;
                 PlainSelect plainSelect = (PlainSelect) select.getSelectBody();
                 String tableName = ((Table) plainSelect.getFromItem()).getName();
                 Expression whereExpr = plainSelect.getWhere();
 
-                String queryString = whereExpr != null ?
-                        processExpression(whereExpr) : "*";
-
-                return "FT.SEARCH " + tableName + indexSuffix + " " + queryString;
+                return new ParsedQuery(canonical, indexFor(tableName), whereExpr, selectOptions(plainSelect), hints);
             }
         } catch (JSQLParserException e) {
             // Fallback to condition parsing if full statement parse fails
             Expression expr = CCJSqlParserUtil.parseCondExpression(cohql);
-            return processExpression(expr);
+            return new ParsedQuery(expr.toString(), null, expr, List.of(), hints);
         }
 
         throw new UnsupportedOperationException("Unsupported query type");
     }
 
+    /**
+     * @param options FT.SEARCH options from ORDER BY and LIMIT
+     * @param hints   options from the {@code /*+ ... } hint comment, if any
+     */
+    record ParsedQuery(String canonical, String index, Expression where, List<String> options, QueryOptions hints) {
+    }
+
+    /**
+     * ORDER BY becomes SORTBY (RediSearch sorts by one field) and LIMIT/OFFSET becomes LIMIT.
+     */
+    private List<String> selectOptions(PlainSelect select) {
+        List<String> options = new ArrayList<>();
+        List<OrderByElement> orderBy = select.getOrderByElements();
+        if (orderBy != null && !orderBy.isEmpty()) {
+            if (orderBy.size() > 1) {
+                throw new UnsupportedOperationException("RediSearch can only sort by a single field: " + orderBy);
+            }
+            String fieldName = orderBy.get(0).getExpression().toString().replaceAll("^@+", "");
+            if (!fieldTypes.containsKey(fieldName) && !fieldName.startsWith("__")) {
+                throw new IllegalArgumentException("Unknown ORDER BY field: " + fieldName);
+            }
+            options.addAll(List.of("SORTBY", fieldName, orderBy.get(0).isAsc() ? "ASC" : "DESC"));
+        }
+
+        Limit limit = select.getLimit();
+        Expression offset = limit != null && limit.getOffset() != null ? limit.getOffset()
+                : select.getOffset() != null ? select.getOffset().getOffset() : null;
+        if (limit != null && limit.getRowCount() != null) {
+            String first = offset == null ? "0" : formatValue(offset);
+            String count = formatValue(limit.getRowCount());
+            if (!first.matches("\\d+") || !count.matches("\\d+")) {
+                throw new IllegalArgumentException("LIMIT and OFFSET must be non-negative integers: " + limit);
+            }
+            options.addAll(List.of("LIMIT", first, count));
+        } else if (offset != null) {
+            throw new UnsupportedOperationException("OFFSET without LIMIT is not supported");
+        }
+        return options;
+    }
+
+    /**
+     * @param likePlans collects the {@link LikePlanner} plan keys the request uses
+     */
+    private SearchRequest searchRequest(String index, Expression whereExpr, List<String> options, QueryOptions hints,
+                                        boolean clientFiltering, List<String> rewrites, List<String> likePlans) {
+        List<SearchRequest.ClientFilter> clientFilters = new ArrayList<>();
+        List<String> parameters = new ArrayList<>();
+        List<Function> knn = new ArrayList<>();
+        List<Function> functions = new ArrayList<>();
+        if (whereExpr != null) {
+            collectFunctions(whereExpr, functions);
+            for (Function function : functions) {
+                for (String name : parameterNames(function)) {
+                    if (!parameters.contains(name)) parameters.add(name);
+                }
+            }
+            whereExpr = extractKnn(whereExpr, knn);
+        }
+        if (whereExpr != null && clientFiltering) {
+            whereExpr = narrowLikes(whereExpr, clientFilters, rewrites, likePlans);
+        }
+
+        String query;
+        double cost = Double.NaN;
+        if (whereExpr == null) {
+            query = "*";
+        } else if (costEstimator == null) {
+            query = processExpression(whereExpr);
+            collectLikePlans(whereExpr, likePlans);
+        } else {
+            CostEstimator.Plan plan = costEstimator.plan(index, whereExpr, this::processExpression, this::likePlan, rewrites);
+            query = processExpression(plan.expression());
+            collectLikePlans(plan.expression(), likePlans);
+            cost = plan.estimate().cost();
+        }
+
+        validate(hints, clientFilters);
+        List<String> arguments = new ArrayList<>(hints.arguments());
+        arguments.addAll(options);
+        if (!knn.isEmpty()) {
+            query = processKnn(knn.get(0), query);
+            if (!options.contains("LIMIT")) arguments.addAll(List.of("LIMIT", "0", knnLimit(knn.get(0))));
+        }
+        // GEOSHAPE predicates need dialect 3, query parameters dialect 2
+        int dialect = usesGeoShape(functions) ? 3 : parameters.isEmpty() ? 0 : 2;
+        if (hints.dialect() != null) {
+            if (hints.dialect() < dialect) {
+                throw new IllegalArgumentException("Query needs DIALECT " + dialect + " or later: " + hints.dialect());
+            }
+            dialect = hints.dialect();
+        }
+        if (dialect > 0) {
+            arguments.addAll(List.of("DIALECT", Integer.toString(dialect)));
+        }
+        return new SearchRequest(index, query, cost, clientFilters, arguments, parameters);
+    }
+
+    CostEstimator getCostEstimator() {
+        return costEstimator;
+    }
+
+    public LikePlanner getLikePlanner() {
+        return likePlanner;
+    }
+
+    /**
+     * Reports the field uses of every translated query to {@code advisor}, cached plans included;
+     * null stops reporting.
+     */
+    public void setIndexAdvisor(IndexAdvisor advisor) {
+        this.indexAdvisor = advisor;
+    }
+
+    /**
+     * The RediSearch index queried for a CohQL table.
+     */
+    String indexFor(String table) {
+        return table + indexSuffix;
+    }
+
+    Map<String, String> getFieldTypes() {
+        return fieldTypes;
+    }
+
+    Collection<CompiledPlan> compiledPlans() {
+        synchronized (plans) {
+            return List.copyOf(plans.values());
+        }
+    }
+
+    void preload(Collection<CompiledPlan> compiled) {
+        for (CompiledPlan plan : compiled) {
+            plans.putIfAbsent(new CompiledPlan.Key(plan.cohql(), plan.clientFiltering()), plan);
+        }
+    }
+
+    /**
+     * Identifies everything that affects translation output, including the translator's own version;
+     * compiled plans are only reused under the same hash.
+     */
+    long schemaHash() {
+        StringBuilder schema = new StringBuilder().append(TRANSLATION_VERSION).append('|')
+                .append(CohQLToRedisTranslator.class.getPackage().getImplementationVersion()).append('|')
+                .append(indexSuffix).append('|');
+        new TreeMap<>(fieldTypes).forEach((field, type) -> schema.append(field).append('=').append(type).append(';'));
+        schema.append('|').append(new TreeSet<>(likePlanner.getSuffixTrieFields()));
+        schema.append('|').append(costEstimator != null);
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : schema.toString().getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
 
     private String removeRedundantParentheses(String query) {
         if (query == null || query.isEmpty()) return query;
@@ -165,6 +667,8 @@ public class CohQLToRedisTranslator {
             return processIsNull((IsNullExpression) expr);
         } else if (expr instanceof Between) {
             return processBetween((Between) expr);
+        } else if (expr instanceof Function function) {
+            return processFunction(function);
         }
         throw new UnsupportedOperationException("Unsupported expression: " + expr.getClass());
     }
@@ -187,17 +691,39 @@ public class CohQLToRedisTranslator {
     }
 
     private String processBetween(Between between) {
+        String fieldName = between.getLeftExpression().toString().replaceAll("^@+", "");
+        String prefix = between.isNot() ? "-" : "";
+        if (isDateField(fieldName)) {
+            // Inclusive on both ends; a date-only upper bound includes its whole day
+            long lower = DateValues.parse(formatValue(between.getBetweenExpressionStart())).start();
+            long upper = DateValues.parse(formatValue(between.getBetweenExpressionEnd())).end();
+            return prefix + "@%s:[%d (%d]".formatted(fieldName, lower, upper);
+        }
+        rejectTextRange(fieldName, between);
         String field = formatField(between.getLeftExpression());
         String lower = formatValue(between.getBetweenExpressionStart());
         String upper = formatValue(between.getBetweenExpressionEnd());
-        return String.format("%s:[%s %s]", field, lower, upper);
+        return prefix + String.format("%s:[%s %s]", field, lower, upper);
+    }
+
+    /**
+     * RediSearch ranges are numeric only; TEXT and TAG attributes have no ordering to compare by.
+     */
+    private void rejectTextRange(String fieldName, Object comparison) {
+        String fieldType = fieldTypes.get(fieldName);
+        if (FieldType.TEXT.name().equals(fieldType) || FieldType.TAG.name().equals(fieldType)) {
+            throw new UnsupportedOperationException("Range comparisons are not supported on " + fieldType
+                    + " field " + fieldName + ": " + comparison);
+        }
     }
 
     private String processEquals(EqualsTo expr) {
         String fieldName = expr.getLeftExpression().toString().replaceAll("^@+", "");
         String value = formatValue(expr.getRightExpression());
 
-        if (isNumericField(fieldName)) {
+        if (isDateField(fieldName)) {
+            return dateEquals(fieldName, value);
+        } else if (isNumericField(fieldName)) {
             // For numeric fields, use range syntax for exact match
             return "@" + fieldName + ":[" + value + " " + value + "]";
         } else if (isTextField(fieldName)) {
@@ -222,10 +748,26 @@ public class CohQLToRedisTranslator {
     private boolean isNumericField(String field) {
         return FieldType.NUMERIC.name().equals(fieldTypes.get(field));
     }
+
+    private boolean isDateField(String field) {
+        String fieldType = fieldTypes.get(field);
+        return FieldType.DATE.name().equals(fieldType) || FieldType.TIMESTAMP.name().equals(fieldType);
+    }
+
+    private String dateEquals(String fieldName, String value) {
+        DateValues.Range range = DateValues.parse(value);
+        if (range.isInstant()) {
+            return "@%s:[%d %d]".formatted(fieldName, range.start(), range.start());
+        }
+        return "@%s:[%d (%d]".formatted(fieldName, range.start(), range.end());
+    }
     private String processNotEquals(NotEqualsTo expr) {
         String fieldName = expr.getLeftExpression().toString().replaceAll("^@+", "");
         boolean isTag = isTagField(fieldName);
         String value = formatValue(expr.getRightExpression());
+        if (isDateField(fieldName)) {
+            return "-" + dateEquals(fieldName, value);
+        }
         if (isTag) {
             value = escapeValue(value);
         }
@@ -233,19 +775,26 @@ public class CohQLToRedisTranslator {
     }
 
     private String processRange(String fieldName, String operator, String value) {
-        String fieldType = fieldTypes.getOrDefault(fieldName, "TEXT");
-
-        // Handle date and text ranges
-        if (fieldType.equals("TEXT") || value.contains("-")) {
+        // Dates compare as epoch milliseconds; a date-only literal covers its whole (UTC) day, as for =
+        if (isDateField(fieldName)) {
+            DateValues.Range range = DateValues.parse(value);
+            long start = range.start();
+            long end = range.end();
             return switch (operator) {
-                case ">=" -> "@%s:[%s +inf]".formatted(fieldName, value);
-                case ">" -> "@%s:[(%s +inf]".formatted(fieldName, value);
-                case "<=" -> "@%s:[-inf %s]".formatted(fieldName, value);
-                case "<" -> "@%s:[-inf (%s]".formatted(fieldName, value);
+                case ">=" -> "@%s:[%d +inf]".formatted(fieldName, start);
+                case ">" -> range.isInstant()
+                        ? "@%s:[(%d +inf]".formatted(fieldName, start)
+                        : "@%s:[%d +inf]".formatted(fieldName, end);
+                case "<=" -> range.isInstant()
+                        ? "@%s:[-inf %d]".formatted(fieldName, start)
+                        : "@%s:[-inf (%d]".formatted(fieldName, end);
+                case "<" -> "@%s:[-inf (%d]".formatted(fieldName, start);
                 default -> throw new IllegalArgumentException("Unsupported operator: " + operator);
             };
         }
 
+        rejectTextRange(fieldName, fieldName + " " + operator + " " + value);
+
         // Handle numeric ranges
         try {
             Double.parseDouble(value);
@@ -276,17 +825,23 @@ public class CohQLToRedisTranslator {
             return "@" + fieldName + ":__NEVER_MATCH__";
         }
 
-        if (isTagField(fieldName)) {
+        if (isDateField(fieldName)) {
+            String orClauses = values.stream()
+                    .map(value -> "(" + dateEquals(fieldName, value) + ")")
+                    .collect(Collectors.joining(" | "));
+            String prefix = inExpr.isNot() ? "-" : "";
+            return prefix + "(" + orClauses + ")";
+        } else if (isTagField(fieldName)) {
             // Use parenthesized OR syntax instead of comma-separated
             String orClauses = values.stream()
-                    .map(this::escapeValue)
+                    .map(CohQLToRedisTranslator::escapeValue)
                     .map(value -> "(@" + fieldName + ":{" + escapeValue(value) + "})")
                     .collect(Collectors.joining(" | "));
             String prefix = inExpr.isNot() ? "-" : "";
             return prefix + "(" + orClauses + ")";
         } else if (isTextField(fieldName)) {
             String orClauses = values.stream()
-                    .map(this::escapeValue)
+                    .map(CohQLToRedisTranslator::escapeValue)
                     .map(value -> "(@" + fieldName + ":\"" + value + "\")")
                     .collect(Collectors.joining(" | "));
             String prefix = inExpr.isNot() ? "-" : "";
@@ -304,12 +859,244 @@ public class CohQLToRedisTranslator {
 
     private String processLike(LikeExpression expr) {
         String fieldName = expr.getLeftExpression().toString().replaceAll("^@+", "");
-        String pattern = formatValue(expr.getRightExpression())
+        String value = formatValue(expr.getRightExpression());
+        if (isTextField(fieldName) || isTagField(fieldName)) {
+            return likePlanner.plan(fieldName, fieldTypes.get(fieldName), value, expr.isNot()).fragment();
+        }
+        String pattern = value
                 .replace("%", "*")
                 .replace("_", "?");
         return "@" + fieldName + ":" + pattern; // Add quotes for exact prefix match
     }
 
+    /**
+     * Narrows general LIKE patterns that are top-level conjuncts to a wildcard Redis can evaluate,
+     * collecting the full pattern as a client-side filter. Returns null if nothing is left for
+     * Redis to filter on.
+     */
+    private Expression narrowLikes(Expression expr, List<SearchRequest.ClientFilter> clientFilters, List<String> rewrites,
+                                   List<String> likePlans) {
+        if (expr instanceof AndExpression andExpression) {
+            Expression left = narrowLikes(andExpression.getLeftExpression(), clientFilters, rewrites, likePlans);
+            Expression right = narrowLikes(andExpression.getRightExpression(), clientFilters, rewrites, likePlans);
+            if (left == null) return right;
+            if (right == null) return left;
+            andExpression.setLeftExpression(left);
+            andExpression.setRightExpression(right);
+        } else if (expr instanceof Parenthesis parenthesis) {
+            Expression inner = narrowLikes(parenthesis.getExpression(), clientFilters, rewrites, likePlans);
+            if (inner == null) return null;
+            parenthesis.setExpression(inner);
+        } else if (expr instanceof LikeExpression like && !like.isNot()) {
+            String fieldName = like.getLeftExpression().toString().replaceAll("^@+", "");
+            String pattern = formatValue(like.getRightExpression());
+            if ((isTextField(fieldName) || isTagField(fieldName))
+                    && LikePlanner.classify(pattern) == LikePlanner.Kind.GENERAL) {
+                LikePlanner.Narrowing narrowing = likePlanner.narrow(pattern, isTagField(fieldName));
+                likePlans.add(narrowing.key());
+                clientFilters.add(new SearchRequest.ClientFilter(fieldName, narrowing.clientPattern()));
+                if (narrowing.redisPattern() == null) {
+                    rewrites.add("Moved " + like + " to a client filter");
+                    return null;
+                }
+                rewrites.add("Narrowed " + like + " to '" + narrowing.redisPattern() + "' with a client filter");
+                like.setRightExpression(new StringValue(narrowing.redisPattern()));
+            }
+        }
+        return expr;
+    }
+
+    /**
+     * Collects the plan key of every LIKE on a TEXT or TAG field in {@code expr}.
+     */
+    private void collectLikePlans(Expression expr, List<String> likePlans) {
+        if (expr instanceof LikeExpression like) {
+            LikePlanner.Plan plan = likePlan(like);
+            if (plan != null) likePlans.add(plan.key());
+        } else if (expr instanceof BinaryExpression binary) {
+            collectLikePlans(binary.getLeftExpression(), likePlans);
+            collectLikePlans(binary.getRightExpression(), likePlans);
+        } else if (expr instanceof Parenthesis parenthesis) {
+            collectLikePlans(parenthesis.getExpression(), likePlans);
+        } else if (expr instanceof NotExpression not) {
+            collectLikePlans(not.getExpression(), likePlans);
+        }
+    }
+
+    /**
+     * The plan {@link #processLike} emits for a LIKE on a TEXT or TAG field, or null for other fields.
+     */
+    private LikePlanner.Plan likePlan(LikeExpression like) {
+        String fieldName = like.getLeftExpression().toString().replaceAll("^@+", "");
+        if (!isTextField(fieldName) && !isTagField(fieldName)) return null;
+        return likePlanner.plan(fieldName, fieldTypes.get(fieldName), formatValue(like.getRightExpression()), like.isNot());
+    }
+
+    private String processFunction(Function function) {
+        String name = function.getName().toLowerCase(Locale.ROOT);
+        List<Expression> args = functionArguments(function);
+        if (name.equals("vector_range")) {
+            // vector_range(field, :param, radius)
+            if (args.size() != 3) {
+                throw new IllegalArgumentException("vector_range expects (field, :param, radius): " + function);
+            }
+            String fieldName = vectorField(args.get(0));
+            return "@%s:[VECTOR_RANGE %s $%s]".formatted(fieldName, formatValue(args.get(2)), parameterName(args.get(1)));
+        } else if (name.equals("within") && isGeoField(args)) {
+            return processGeoRadius(function, args);
+        } else if (GEOSHAPE_PREDICATES.contains(name)) {
+            // within/contains/intersects/disjoint(field, :shape) with a WKT shape bound as parameter
+            if (args.size() != 2) {
+                throw new IllegalArgumentException(name + " expects (field, :shape) on a GEOSHAPE field: " + function);
+            }
+            String fieldName = typedField(args.get(0), FieldType.GEOSHAPE);
+            return "@%s:[%s $%s]".formatted(fieldName, name.toUpperCase(Locale.ROOT), parameterName(args.get(1)));
+        } else if (name.equals("knn")) {
+            throw new UnsupportedOperationException("knn() is only supported as a top-level AND term: " + function);
+        }
+        throw new UnsupportedOperationException("Unsupported function: " + function.getName());
+    }
+
+    /**
+     * within(field, lon, lat, radius[, unit]) on a GEO field; the unit defaults to km.
+     */
+    private String processGeoRadius(Function function, List<Expression> args) {
+        if (args.size() != 4 && args.size() != 5) {
+            throw new IllegalArgumentException("within expects (field, lon, lat, radius[, unit]): " + function);
+        }
+        String fieldName = typedField(args.get(0), FieldType.GEO);
+        double lon = geoNumber(args.get(1), function);
+        double lat = geoNumber(args.get(2), function);
+        double radius = geoNumber(args.get(3), function);
+        String unit = args.size() == 5 ? formatValue(args.get(4)).toLowerCase(Locale.ROOT) : "km";
+        if (lon < -180 || lon > 180 || lat < -MAX_GEO_LATITUDE || lat > MAX_GEO_LATITUDE || radius < 0) {
+            throw new IllegalArgumentException("Coordinates or radius out of range: " + function);
+        }
+        if (!GEO_UNITS.contains(unit)) {
+            throw new IllegalArgumentException("Unsupported distance unit '" + unit + "', expected one of " + GEO_UNITS);
+        }
+        return "@%s:[%s %s %s %s]".formatted(fieldName, formatValue(args.get(1)), formatValue(args.get(2)),
+                formatValue(args.get(3)), unit);
+    }
+
+    private double geoNumber(Expression expr, Function function) {
+        try {
+            return Double.parseDouble(formatValue(expr));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Expected a number but got " + expr + " in " + function);
+        }
+    }
+
+    private boolean isGeoField(List<Expression> args) {
+        return !args.isEmpty() && FieldType.GEO.name().equals(fieldTypes.get(args.get(0).toString().replaceAll("^@+", "")));
+    }
+
+    /**
+     * knn(field, :param, k) becomes a KNN clause over the rest of the condition as pre-filter.
+     */
+    private String processKnn(Function knn, String filter) {
+        List<Expression> args = functionArguments(knn);
+        if (args.size() != 3) {
+            throw new IllegalArgumentException("knn expects (field, :param, k): " + knn);
+        }
+        String fieldName = vectorField(args.get(0));
+        String prefilter = "*".equals(filter) ? "*" : "(" + filter + ")";
+        return "%s=>[KNN %s @%s $%s]".formatted(prefilter, knnLimit(knn), fieldName, parameterName(args.get(1)));
+    }
+
+    private String knnLimit(Function knn) {
+        List<Expression> args = functionArguments(knn);
+        String k = args.size() == 3 ? formatValue(args.get(2)) : "";
+        if (!k.matches("\\d+")) {
+            throw new IllegalArgumentException("knn k must be a positive integer: " + knn);
+        }
+        return k;
+    }
+
+    private String vectorField(Expression expr) {
+        return typedField(expr, FieldType.VECTOR);
+    }
+
+    private String typedField(Expression expr, FieldType type) {
+        String fieldName = expr.toString().replaceAll("^@+", "");
+        if (!type.name().equals(fieldTypes.get(fieldName))) {
+            throw new IllegalArgumentException("Not a " + type + " field: " + fieldName);
+        }
+        return fieldName;
+    }
+
+    private static String parameterName(Expression expr) {
+        if (expr instanceof JdbcNamedParameter parameter) {
+            return parameter.getName();
+        }
+        throw new IllegalArgumentException("Expected a named parameter (:name) but got: " + expr);
+    }
+
+    private static List<Expression> functionArguments(Function function) {
+        return function.getParameters() == null ? List.of() : function.getParameters().getExpressions();
+    }
+
+    private static boolean isFunction(Expression expr, String name) {
+        return expr instanceof Function function && function.getName().equalsIgnoreCase(name);
+    }
+
+    /**
+     * Removes a top-level knn() conjunct into {@code knn}; returns the remaining condition or null.
+     */
+    private Expression extractKnn(Expression expr, List<Function> knn) {
+        if (expr instanceof AndExpression andExpression) {
+            Expression left = extractKnn(andExpression.getLeftExpression(), knn);
+            Expression right = extractKnn(andExpression.getRightExpression(), knn);
+            if (left == null) return right;
+            if (right == null) return left;
+            andExpression.setLeftExpression(left);
+            andExpression.setRightExpression(right);
+        } else if (expr instanceof Parenthesis parenthesis) {
+            Expression inner = extractKnn(parenthesis.getExpression(), knn);
+            if (inner == null) return null;
+            parenthesis.setExpression(inner);
+        } else if (isFunction(expr, "knn")) {
+            if (!knn.isEmpty()) {
+                throw new UnsupportedOperationException("Only one knn() per query is supported");
+            }
+            knn.add((Function) expr);
+            return null;
+        }
+        return expr;
+    }
+
+    private static void collectFunctions(Expression expr, List<Function> functions) {
+        if (expr instanceof BinaryExpression binary) {
+            collectFunctions(binary.getLeftExpression(), functions);
+            collectFunctions(binary.getRightExpression(), functions);
+        } else if (expr instanceof Parenthesis parenthesis) {
+            collectFunctions(parenthesis.getExpression(), functions);
+        } else if (expr instanceof NotExpression notExpression) {
+            collectFunctions(notExpression.getExpression(), functions);
+        } else if (expr instanceof Function function) {
+            functions.add(function);
+        }
+    }
+
+    private static List<String> parameterNames(Function function) {
+        List<String> names = new ArrayList<>();
+        for (Expression argument : functionArguments(function)) {
+            if (argument instanceof JdbcNamedParameter parameter) names.add(parameter.getName());
+        }
+        return names;
+    }
+
+    private boolean usesGeoShape(List<Function> functions) {
+        for (Function function : functions) {
+            List<Expression> args = functionArguments(function);
+            if (GEOSHAPE_PREDICATES.contains(function.getName().toLowerCase(Locale.ROOT)) && !args.isEmpty()
+                    && FieldType.GEOSHAPE.name().equals(fieldTypes.get(args.get(0).toString().replaceAll("^@+", "")))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private List<String> extractValues(ItemsList items) {
         List<String> values = new ArrayList<>();
         if (items instanceof ExpressionList) {
@@ -338,7 +1125,7 @@ public class CohQLToRedisTranslator {
         return expr.toString();
     }
 
-    private String escapeValue(String value) {
+    static String escapeValue(String value) {
         return value.replace("\\", "\\\\")
                 .replace("@", "\\@")
                 .replace(".", "\\.")
@@ -351,6 +1138,15 @@ public class CohQLToRedisTranslator {
     static enum FieldType {
         TEXT,
         TAG,
-        NUMERIC
+        NUMERIC,
+        // Indexed as NUMERIC epoch milliseconds (UTC)
+        DATE,
+        TIMESTAMP,
+        // FLOAT32 vectors, queried through knn() and vector_range() with bound parameters
+        VECTOR,
+        // "lon,lat" points, queried through within(field, lon, lat, radius, unit)
+        GEO,
+        // WKT shapes, queried through within/contains/intersects/disjoint(field, :shape)
+        GEOSHAPE
     }
 }
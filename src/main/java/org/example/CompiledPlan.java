@@ -0,0 +1,24 @@
+package org.example;
+
+import java.util.List;
+
+/**
+ * A cached translation: the CohQL text, its canonical parsed form and the emitted request.
+ * Plans made with and without client filtering differ for general LIKE patterns, so both are kept.
+ * The LIKE plan keys are recorded with the {@link LikePlanner}, and the field uses with any
+ * {@link IndexAdvisor}, every time the plan is used.
+ * The estimated cost and intersection order are only as fresh as the statistics read at
+ * {@code compiledAtMillis}, a wall-clock time so that it still holds for plans read back from a
+ * {@link PlanStore} by another process.
+ */
+record CompiledPlan(String cohql, boolean clientFiltering, String canonical, SearchRequest request,
+                    List<String> likePlans, List<String> fieldUses, long compiledAtMillis) {
+
+    CompiledPlan {
+        likePlans = List.copyOf(likePlans);
+        fieldUses = List.copyOf(fieldUses);
+    }
+
+    record Key(String cohql, boolean clientFiltering) {
+    }
+}
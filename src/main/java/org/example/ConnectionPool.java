@@ -0,0 +1,79 @@
+package org.example;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulRedisConnection;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A fixed set of multiplexed connections shared by all threads. Lettuce connections are
+ * thread-safe and pipeline: commands issued concurrently on one connection are written without
+ * waiting for earlier replies. Spreading requests round-robin over several connections adds
+ * sockets and event-loop threads once one connection's encoding or I/O becomes the bottleneck.
+ * Connections must use {@link ByteBufferCodec} and RESP2, as for {@link RedisQueryExecutor}.
+ */
+public class ConnectionPool implements SearchTransport, AutoCloseable {
+
+    private final List<StatefulRedisConnection<String, ByteBuffer>> connections;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ConnectionPool(List<StatefulRedisConnection<String, ByteBuffer>> connections) {
+        if (connections.isEmpty()) {
+            throw new IllegalArgumentException("At least one connection is required");
+        }
+        this.connections = List.copyOf(connections);
+    }
+
+    /**
+     * Opens {@code size} connections; the client should be configured for RESP2.
+     */
+    public static ConnectionPool open(RedisClient client, int size) {
+        return open(client, null, size);
+    }
+
+    /**
+     * Opens {@code size} connections to {@code uri}, or to the client's default URI if null.
+     */
+    public static ConnectionPool open(RedisClient client, RedisURI uri, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be positive: " + size);
+        }
+        List<StatefulRedisConnection<String, ByteBuffer>> connections = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            connections.add(uri == null ? client.connect(ByteBufferCodec.INSTANCE) : client.connect(ByteBufferCodec.INSTANCE, uri));
+        }
+        return new ConnectionPool(connections);
+    }
+
+    /**
+     * The next connection, round-robin.
+     */
+    public StatefulRedisConnection<String, ByteBuffer> next() {
+        return connections.get(Math.floorMod(next.getAndIncrement(), connections.size()));
+    }
+
+    @Override
+    public StatefulRedisConnection<String, ByteBuffer> connection() {
+        return next();
+    }
+
+    public int size() {
+        return connections.size();
+    }
+
+    @Override
+    public TypedSearchResults search(String index, SearchRequest request, Map<String, ?> params, RowSchema schema) {
+        return next().sync().dispatch(SearchCommand.FT_SEARCH, new TypedRowOutput(ByteBufferCodec.INSTANCE, schema),
+                RedisQueryExecutor.searchArgs(index, request, params, request.arguments()));
+    }
+
+    @Override
+    public void close() {
+        connections.forEach(StatefulRedisConnection::close);
+    }
+}
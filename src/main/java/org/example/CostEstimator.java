@@ -0,0 +1,223 @@
+package org.example;
+
+import net.sf.jsqlparser.expression.*;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.conditional.OrExpression;
+import net.sf.jsqlparser.expression.operators.relational.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Estimates how many documents each CohQL subtree matches and how many RediSearch has to touch to
+ * find them. Equality, IN and bounded range leaves are counted against the index through
+ * {@link IndexStatistics}; patterns that RediSearch has to expand over the whole term dictionary
+ * (a leading-wildcard LIKE, unless its field has a suffix trie; see {@link LikePlanner}), negations
+ * and {@code IS NOT NULL} cost the full index size. Negations
+ * and open-ended ranges are estimated from the document count alone: counting them would run the
+ * scan that admission control is meant to refuse.
+ * <p>
+ * Intersections are reordered so the most selective terms come first.
+ */
+public class CostEstimator {
+
+    static final double DEFAULT_SELECTIVITY = 0.1;
+    static final double PREFIX_SELECTIVITY = 0.05;
+    static final double OPEN_RANGE_SELECTIVITY = 1.0 / 3;
+
+    private final IndexStatistics statistics;
+    private final String defaultIndex;
+    // Per thread, so a caller can subtract the time its own translation spent waiting on statistics
+    private final ThreadLocal<long[]> statisticsNanos = ThreadLocal.withInitial(() -> new long[1]);
+
+    /**
+     * @param defaultIndex index used for statistics when a bare condition (no FROM) is translated
+     */
+    public CostEstimator(IndexStatistics statistics, String defaultIndex) {
+        this.statistics = statistics;
+        this.defaultIndex = defaultIndex;
+    }
+
+    long maxAgeNanos() {
+        return statistics.maxAgeNanos();
+    }
+
+    /**
+     * Total time the calling thread has spent in {@link IndexStatistics} calls, which may be
+     * synchronous round trips to Redis.
+     */
+    public long statisticsNanos() {
+        return statisticsNanos.get()[0];
+    }
+
+    private long timed(LongSupplier read) {
+        long start = System.nanoTime();
+        try {
+            return read.getAsLong();
+        } finally {
+            statisticsNanos.get()[0] += System.nanoTime() - start;
+        }
+    }
+
+    public record Estimate(double cardinality, double cost) {
+    }
+
+    record Plan(Expression expression, Estimate estimate) {
+    }
+
+    /**
+     * Reorders intersections in {@code expr} by estimated cardinality and estimates the result.
+     *
+     * @param emit     translates a subtree to its RediSearch fragment, for per-term counts
+     * @param planLike the {@link LikePlanner} plan of a LIKE leaf, or null if it has none
+     * @param rewrites collects a description of each reordering applied
+     */
+    Plan plan(String index, Expression expr, Function<Expression, String> emit,
+              Function<LikeExpression, LikePlanner.Plan> planLike, List<String> rewrites) {
+        String target = index != null ? index : defaultIndex;
+        long total = target == null ? -1 : timed(() -> statistics.documentCount(target));
+        if (total < 0) {
+            return new Plan(expr, new Estimate(Double.NaN, Double.NaN));
+        }
+        return plan(new Context(target, total, emit, planLike, rewrites, true), expr);
+    }
+
+    private Plan plan(Context context, Expression expr) {
+        double total = context.total();
+        if (expr instanceof AndExpression) {
+            List<Expression> terms = new ArrayList<>();
+            flattenAnd(expr, terms);
+            List<Plan> plans = new ArrayList<>();
+            for (Expression term : terms) {
+                plans.add(plan(context, term));
+            }
+            List<Plan> original = List.copyOf(plans);
+            plans.sort(Comparator.comparingDouble(p -> p.estimate().cardinality()));
+            if (!plans.equals(original)) {
+                context.rewrites().add("Reordered AND by estimated cardinality: " + describe(original) + " -> " + describe(plans));
+            }
+
+            Expression rebuilt = plans.get(0).expression();
+            double selectivity = 1;
+            double cost = 0;
+            for (int i = 0; i < plans.size(); i++) {
+                Plan p = plans.get(i);
+                if (i > 0) rebuilt = new AndExpression(rebuilt, p.expression());
+                selectivity *= total == 0 ? 0 : p.estimate().cardinality() / total;
+                cost += p.estimate().cost();
+            }
+            return new Plan(rebuilt, new Estimate(total * selectivity, cost));
+        } else if (expr instanceof OrExpression or) {
+            Plan left = plan(context, or.getLeftExpression());
+            Plan right = plan(context, or.getRightExpression());
+            or.setLeftExpression(left.expression());
+            or.setRightExpression(right.expression());
+            return new Plan(or, new Estimate(
+                    Math.min(total, left.estimate().cardinality() + right.estimate().cardinality()),
+                    left.estimate().cost() + right.estimate().cost()));
+        } else if (expr instanceof Parenthesis parenthesis) {
+            Plan inner = plan(context, parenthesis.getExpression());
+            parenthesis.setExpression(inner.expression());
+            return new Plan(parenthesis, inner.estimate());
+        } else if (expr instanceof NotExpression not) {
+            Plan inner = plan(context.withoutCounts(), not.getExpression());
+            not.setExpression(inner.expression());
+            // A negation walks every document in the index
+            return new Plan(not, new Estimate(Math.max(0, total - inner.estimate().cardinality()), total + inner.estimate().cost()));
+        }
+        return new Plan(expr, leaf(context, expr));
+    }
+
+    private Estimate leaf(Context context, Expression expr) {
+        double total = context.total();
+        if (expr instanceof IsNullExpression isNull) {
+            // IS NOT NULL is translated to '*'
+            return isNull.isNot() ? new Estimate(total, total) : new Estimate(0, 1);
+        } else if (expr instanceof LikeExpression like) {
+            String pattern = like.getRightExpression() instanceof StringValue value
+                    ? value.getValue() : like.getRightExpression().toString();
+            LikePlanner.Plan likePlan = context.planLike().apply(like);
+            LikePlanner.Kind kind = likePlan != null ? likePlan.kind() : LikePlanner.classify(pattern);
+            if (kind != LikePlanner.Kind.EXACT) {
+                // Prefixes, and suffixes or infixes on a suffix trie, are looked up rather than scanned
+                boolean lookup = switch (kind) {
+                    case PREFIX -> true;
+                    case SUFFIX, INFIX -> likePlan != null && likePlan.strategy().endsWith("_TRIE");
+                    default -> !pattern.startsWith("%") && !pattern.startsWith("_");
+                };
+                if (!lookup) {
+                    return new Estimate(total * (like.isNot() ? 1 - DEFAULT_SELECTIVITY : DEFAULT_SELECTIVITY), total);
+                }
+                double cardinality = total * PREFIX_SELECTIVITY;
+                return new Estimate(like.isNot() ? total - cardinality : cardinality, like.isNot() ? total : cardinality);
+            }
+        }
+        if (negated(expr)) {
+            return new Estimate(total * (1 - DEFAULT_SELECTIVITY), total);
+        } else if (expr instanceof GreaterThan || expr instanceof GreaterThanEquals
+                || expr instanceof MinorThan || expr instanceof MinorThanEquals) {
+            double cardinality = total * OPEN_RANGE_SELECTIVITY;
+            return new Estimate(cardinality, Math.max(1, cardinality));
+        } else if (expr instanceof net.sf.jsqlparser.expression.Function function && hasParameters(function)) {
+            // Vector and shape predicates need their bound values to be counted; assume they scan the index
+            return new Estimate(total * DEFAULT_SELECTIVITY, total);
+        }
+
+        double cardinality = counted(context, expr, total * DEFAULT_SELECTIVITY);
+        return new Estimate(cardinality, Math.max(1, cardinality));
+    }
+
+    private static boolean negated(Expression expr) {
+        return expr instanceof NotEqualsTo
+                || expr instanceof InExpression in && in.isNot()
+                || expr instanceof LikeExpression like && like.isNot()
+                || expr instanceof Between between && between.isNot();
+    }
+
+    private static boolean hasParameters(net.sf.jsqlparser.expression.Function function) {
+        if (function.getParameters() == null) return false;
+        for (Expression argument : function.getParameters().getExpressions()) {
+            if (argument instanceof JdbcNamedParameter) return true;
+        }
+        return false;
+    }
+
+    private double counted(Context context, Expression expr, double fallback) {
+        if (!context.count()) return fallback;
+        String query = context.emit().apply(expr);
+        long count = timed(() -> statistics.count(context.index(), query));
+        return count < 0 ? fallback : count;
+    }
+
+    private static String describe(List<Plan> plans) {
+        StringBuilder sb = new StringBuilder();
+        for (Plan p : plans) {
+            if (sb.length() > 0) sb.append(", ");
+            sb.append(p.expression()).append(" (~").append(Math.round(p.estimate().cardinality())).append(')');
+        }
+        return sb.toString();
+    }
+
+    private static void flattenAnd(Expression expr, List<Expression> terms) {
+        if (expr instanceof AndExpression and) {
+            flattenAnd(and.getLeftExpression(), terms);
+            flattenAnd(and.getRightExpression(), terms);
+        } else {
+            terms.add(expr);
+        }
+    }
+
+    /**
+     * @param count whether leaves may be counted on the server; off below a negation
+     */
+    private record Context(String index, double total, Function<Expression, String> emit,
+                           Function<LikeExpression, LikePlanner.Plan> planLike, List<String> rewrites, boolean count) {
+
+        Context withoutCounts() {
+            return new Context(index, total, emit, planLike, rewrites, false);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.example;
+
+import java.time.*;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+
+/**
+ * Conversions between CohQL date literals / Java date values and the epoch-millisecond numbers
+ * that DATE and TIMESTAMP fields are indexed as. Values without a zone are read as UTC.
+ */
+final class DateValues {
+
+    static final long DAY_MILLIS = 86_400_000L;
+
+    /**
+     * The instants a literal denotes, as {@code [start, end)}. A date-only literal covers its whole
+     * day; anything with a time component covers a single millisecond.
+     */
+    record Range(long start, long end) {
+
+        boolean isInstant() {
+            return end == start + 1;
+        }
+    }
+
+    private DateValues() {
+    }
+
+    static Range parse(String literal) {
+        String value = literal.trim();
+        if (value.matches("-?\\d+")) {
+            long millis = Long.parseLong(value);
+            return new Range(millis, millis + 1);
+        }
+        try {
+            long start = LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+            return new Range(start, start + DAY_MILLIS);
+        } catch (DateTimeParseException e) {
+            // not a plain date
+        }
+        try {
+            return instant(OffsetDateTime.parse(value).toInstant().toEpochMilli());
+        } catch (DateTimeParseException e) {
+            // no offset
+        }
+        try {
+            return instant(LocalDateTime.parse(value.replace(' ', 'T')).toInstant(ZoneOffset.UTC).toEpochMilli());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date value: " + literal);
+        }
+    }
+
+    /**
+     * Epoch milliseconds for a value being written to a DATE or TIMESTAMP field.
+     */
+    static long toEpochMillis(Object value) {
+        if (value instanceof Number number) return number.longValue();
+        if (value instanceof Instant instant) return instant.toEpochMilli();
+        if (value instanceof Date date) return date.getTime();
+        if (value instanceof LocalDate date) return date.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+        if (value instanceof LocalDateTime dateTime) return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+        if (value instanceof OffsetDateTime dateTime) return dateTime.toInstant().toEpochMilli();
+        if (value instanceof ZonedDateTime dateTime) return dateTime.toInstant().toEpochMilli();
+        return parse(String.valueOf(value)).start();
+    }
+
+    private static Range instant(long millis) {
+        return new Range(millis, millis + 1);
+    }
+}
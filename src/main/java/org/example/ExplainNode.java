@@ -0,0 +1,53 @@
+package org.example;
+
+import net.sf.jsqlparser.expression.BinaryExpression;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.NotExpression;
+import net.sf.jsqlparser.expression.Parenthesis;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.conditional.OrExpression;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One node of a parsed CohQL condition as shown by {@link CohQLToRedisTranslator#explain}.
+ * AND/OR chains are flattened and parentheses dropped; leaves carry the predicate text.
+ */
+public record ExplainNode(String label, List<ExplainNode> children) {
+
+    static ExplainNode of(Expression expr) {
+        if (expr instanceof Parenthesis parenthesis) {
+            return of(parenthesis.getExpression());
+        } else if (expr instanceof AndExpression) {
+            return new ExplainNode("AND", flatten(expr, AndExpression.class, new ArrayList<>()));
+        } else if (expr instanceof OrExpression) {
+            return new ExplainNode("OR", flatten(expr, OrExpression.class, new ArrayList<>()));
+        } else if (expr instanceof NotExpression not) {
+            return new ExplainNode("NOT", List.of(of(not.getExpression())));
+        }
+        return new ExplainNode(expr.toString(), List.of());
+    }
+
+    private static List<ExplainNode> flatten(Expression expr, Class<?> operator, List<ExplainNode> nodes) {
+        Expression unwrapped = expr;
+        while (unwrapped instanceof Parenthesis parenthesis) {
+            unwrapped = parenthesis.getExpression();
+        }
+        if (operator.isInstance(unwrapped)) {
+            BinaryExpression binary = (BinaryExpression) unwrapped;
+            flatten(binary.getLeftExpression(), operator, nodes);
+            flatten(binary.getRightExpression(), operator, nodes);
+        } else {
+            nodes.add(of(unwrapped));
+        }
+        return nodes;
+    }
+
+    void render(StringBuilder sb, int depth) {
+        sb.append("  ".repeat(depth)).append(label).append('\n');
+        for (ExplainNode child : children) {
+            child.render(sb, depth + 1);
+        }
+    }
+}
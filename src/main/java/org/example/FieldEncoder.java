@@ -0,0 +1,42 @@
+package org.example;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Encodes document values for writing to Redis hashes so they match how the translator queries
+ * them: DATE and TIMESTAMP values become epoch milliseconds, GEO points given as {@code double[]{lon, lat}}
+ * become "lon,lat", everything else its string form.
+ * Null values are skipped, since RediSearch does not index them.
+ */
+public class FieldEncoder {
+
+    private final Map<String, String> fieldTypes;
+
+    public FieldEncoder(Map<String, String> fieldTypes) {
+        this.fieldTypes = fieldTypes;
+    }
+
+    public String encode(String field, Object value) {
+        if (value == null) return null;
+        String fieldType = fieldTypes.get(field);
+        if (CohQLToRedisTranslator.FieldType.DATE.name().equals(fieldType)
+                || CohQLToRedisTranslator.FieldType.TIMESTAMP.name().equals(fieldType)) {
+            return Long.toString(DateValues.toEpochMillis(value));
+        }
+        if (CohQLToRedisTranslator.FieldType.GEO.name().equals(fieldType) && value instanceof double[] point) {
+            if (point.length != 2) throw new IllegalArgumentException("GEO value must be {lon, lat}: " + field);
+            return point[0] + "," + point[1];
+        }
+        return String.valueOf(value);
+    }
+
+    public Map<String, String> encode(Map<String, ?> document) {
+        Map<String, String> encoded = new LinkedHashMap<>();
+        for (Map.Entry<String, ?> field : document.entrySet()) {
+            String value = encode(field.getKey(), field.getValue());
+            if (value != null) encoded.put(field.getKey(), value);
+        }
+        return encoded;
+    }
+}
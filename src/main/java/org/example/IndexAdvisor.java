@@ -0,0 +1,230 @@
+package org.example;
+
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.expression.BinaryExpression;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.NotExpression;
+import net.sf.jsqlparser.expression.Parenthesis;
+import net.sf.jsqlparser.expression.StringValue;
+import net.sf.jsqlparser.expression.operators.relational.*;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Recommends schema changes from the queries it observes, per index and field:
+ * <ul>
+ *     <li>SORTABLE for fields used in ORDER BY, so sorting reads the sort vector instead of
+ *     loading the field from every matching hash;</li>
+ *     <li>TAG for TEXT fields only ever compared with =, !=, IN or NOT IN, which then become a
+ *     single inverted-list lookup instead of a tokenized phrase match;</li>
+ *     <li>WITHSUFFIXTRIE for TEXT and TAG fields queried with suffix or infix LIKE patterns, which
+ *     otherwise expand over the whole term dictionary;</li>
+ *     <li>NOSTEM for TEXT fields matched by whole words (=, !=, IN) that stay TEXT, since a
+ *     stemmed query also matches every other form of the word and reads their postings too; LIKE
+ *     patterns are wildcard terms, which are not stemmed.</li>
+ * </ul>
+ * Usage comes from compiled plans: attach the advisor with
+ * {@link CohQLToRedisTranslator#setIndexAdvisor} to count every translated query, or pass queries
+ * to {@link #observe(String)}, which goes through the translator's plan cache.
+ * Savings are estimated in documents touched over the observed queries, using the index size
+ * from {@link IndexStatistics} and the selectivity defaults of {@link CostEstimator}; they are
+ * NaN when the index size is unknown.
+ */
+public class IndexAdvisor {
+
+    // Extra postings work of a TEXT phrase match (offset checks) relative to a TAG lookup
+    static final double TEXT_EXACT_OVERHEAD = 0.5;
+    // Extra documents a stemmed term matches through the word's other forms, relative to the term itself
+    static final double STEM_EXPANSION = 0.2;
+
+    private final CohQLToRedisTranslator translator;
+    private final IndexStatistics statistics;
+    private final String defaultIndex;
+    private final Set<String> sortableFields;
+    private final Set<String> noStemFields;
+    private final Map<FieldKey, FieldUsage> usage = new ConcurrentHashMap<>();
+
+    /**
+     * @param defaultIndex   index bare conditions (no FROM) are attributed to
+     * @param sortableFields fields already declared SORTABLE
+     */
+    public IndexAdvisor(CohQLToRedisTranslator translator, IndexStatistics statistics, String defaultIndex,
+                        Set<String> sortableFields) {
+        this(translator, statistics, defaultIndex, sortableFields, Set.of());
+    }
+
+    /**
+     * @param noStemFields TEXT fields already declared NOSTEM
+     */
+    public IndexAdvisor(CohQLToRedisTranslator translator, IndexStatistics statistics, String defaultIndex,
+                        Set<String> sortableFields, Set<String> noStemFields) {
+        this.translator = translator;
+        this.statistics = statistics;
+        this.defaultIndex = defaultIndex;
+        this.sortableFields = Set.copyOf(sortableFields);
+        this.noStemFields = Set.copyOf(noStemFields);
+    }
+
+    public enum Change {
+        SORTABLE, TAG, SUFFIX_TRIE, NOSTEM
+    }
+
+    /**
+     * @param queries          observed queries that would benefit
+     * @param estimatedSaving  documents touched that the change would avoid over those queries
+     */
+    public record Recommendation(String index, String field, Change change, long queries, double estimatedSaving,
+                                 String reason) {
+    }
+
+    private record FieldKey(String index, String field) {
+    }
+
+    /**
+     * How a query uses a field, recorded in compiled plans as {@code USE:field}.
+     */
+    enum Use {
+        ORDER_BY, EXACT, LIKE, SUFFIX_LIKE, OTHER
+    }
+
+    private static final class FieldUsage {
+        final LongAdder orderBy = new LongAdder();
+        final LongAdder exact = new LongAdder();
+        final LongAdder suffixLike = new LongAdder();
+        final LongAdder otherText = new LongAdder();
+    }
+
+    /**
+     * Records how a query uses each field. Call it with every CohQL query sent, or a sample; the
+     * query is compiled once and its plan cached by the translator.
+     */
+    public void observe(String cohql) throws JSQLParserException {
+        observe(translator.compiledPlan(cohql, true));
+    }
+
+    void observe(CompiledPlan plan) {
+        String index = plan.request().index() != null ? plan.request().index() : defaultIndex;
+        if (index == null) return;
+        for (String fieldUse : plan.fieldUses()) {
+            int separator = fieldUse.indexOf(':');
+            FieldUsage fieldUsage = usage(index, fieldUse.substring(separator + 1));
+            switch (Use.valueOf(fieldUse.substring(0, separator))) {
+                case ORDER_BY -> fieldUsage.orderBy.increment();
+                case EXACT -> fieldUsage.exact.increment();
+                case SUFFIX_LIKE -> {
+                    fieldUsage.suffixLike.increment();
+                    fieldUsage.otherText.increment();
+                }
+                case LIKE, OTHER -> fieldUsage.otherText.increment();
+            }
+        }
+    }
+
+    /**
+     * The field uses of a parsed query, one {@code USE:field} entry per occurrence.
+     */
+    static List<String> fieldUses(CohQLToRedisTranslator.ParsedQuery parsed) {
+        List<String> uses = new ArrayList<>();
+        int sortBy = parsed.options().indexOf("SORTBY");
+        if (sortBy >= 0) {
+            uses.add(Use.ORDER_BY + ":" + parsed.options().get(sortBy + 1));
+        }
+        if (parsed.where() != null) {
+            fieldUses(parsed.where(), uses);
+        }
+        return uses;
+    }
+
+    private static void fieldUses(Expression expr, List<String> uses) {
+        if (expr instanceof BinaryExpression binary && !(expr instanceof ComparisonOperator || expr instanceof LikeExpression)) {
+            fieldUses(binary.getLeftExpression(), uses);
+            fieldUses(binary.getRightExpression(), uses);
+        } else if (expr instanceof Parenthesis parenthesis) {
+            fieldUses(parenthesis.getExpression(), uses);
+        } else if (expr instanceof NotExpression not) {
+            fieldUses(not.getExpression(), uses);
+        } else if (expr instanceof EqualsTo || expr instanceof NotEqualsTo) {
+            uses.add(Use.EXACT + ":" + field(((BinaryExpression) expr).getLeftExpression()));
+        } else if (expr instanceof InExpression in) {
+            uses.add(Use.EXACT + ":" + field(in.getLeftExpression()));
+        } else if (expr instanceof LikeExpression like) {
+            String pattern = like.getRightExpression() instanceof StringValue value
+                    ? value.getValue() : like.getRightExpression().toString();
+            LikePlanner.Kind kind = LikePlanner.classify(pattern);
+            boolean suffix = kind == LikePlanner.Kind.SUFFIX || kind == LikePlanner.Kind.INFIX;
+            uses.add((suffix ? Use.SUFFIX_LIKE : Use.LIKE) + ":" + field(like.getLeftExpression()));
+        } else if (expr instanceof BinaryExpression binary) {
+            uses.add(Use.OTHER + ":" + field(binary.getLeftExpression()));
+        } else if (expr instanceof Between between) {
+            uses.add(Use.OTHER + ":" + field(between.getLeftExpression()));
+        }
+    }
+
+    private FieldUsage usage(String index, String field) {
+        return usage.computeIfAbsent(new FieldKey(index, field), key -> new FieldUsage());
+    }
+
+    private static String field(Expression expr) {
+        return expr.toString().replaceAll("^@+", "");
+    }
+
+    /**
+     * Current recommendations, largest estimated saving first.
+     */
+    public List<Recommendation> recommendations() {
+        Map<String, String> fieldTypes = translator.getFieldTypes();
+        Set<String> suffixTrieFields = translator.getLikePlanner().getSuffixTrieFields();
+        List<Recommendation> recommendations = new ArrayList<>();
+        for (Map.Entry<FieldKey, FieldUsage> entry : usage.entrySet()) {
+            String index = entry.getKey().index();
+            String field = entry.getKey().field();
+            String type = fieldTypes.get(field);
+            FieldUsage fieldUsage = entry.getValue();
+            double matched = documentCount(index) * CostEstimator.DEFAULT_SELECTIVITY;
+
+            long orderBy = fieldUsage.orderBy.sum();
+            if (orderBy > 0 && !sortableFields.contains(field)) {
+                recommendations.add(new Recommendation(index, field, Change.SORTABLE, orderBy, orderBy * matched,
+                        "ORDER BY " + field + " loads the field from every matching document"));
+            }
+
+            long exact = fieldUsage.exact.sum();
+            boolean text = CohQLToRedisTranslator.FieldType.TEXT.name().equals(type);
+            boolean tag = text && exact > 0 && fieldUsage.otherText.sum() == 0;
+            if (tag) {
+                recommendations.add(new Recommendation(index, field, Change.TAG, exact,
+                        exact * matched * TEXT_EXACT_OVERHEAD,
+                        field + " is only matched exactly (=, !=, IN), which a TAG field answers with one lookup"));
+            }
+
+            // LIKE patterns are not stemmed, so only exact matches gain from NOSTEM
+            if (text && !tag && exact > 0 && !noStemFields.contains(field)) {
+                recommendations.add(new Recommendation(index, field, Change.NOSTEM, exact,
+                        exact * matched * STEM_EXPANSION,
+                        field + " is matched by whole words; stemming also matches their other forms"));
+            }
+
+            long suffixLike = fieldUsage.suffixLike.sum();
+            boolean textOrTag = text || CohQLToRedisTranslator.FieldType.TAG.name().equals(type);
+            if (textOrTag && suffixLike > 0 && !suffixTrieFields.contains(field)) {
+                recommendations.add(new Recommendation(index, field, Change.SUFFIX_TRIE, suffixLike,
+                        suffixLike * documentCount(index) * (1 - CostEstimator.DEFAULT_SELECTIVITY),
+                        "Suffix and infix LIKE on " + field + " expands over the whole term dictionary"));
+            }
+        }
+        // NaN savings (unknown index size) sort last
+        recommendations.sort(Comparator.comparingDouble((Recommendation r) -> Double.isNaN(r.estimatedSaving()) ? Double.NEGATIVE_INFINITY : r.estimatedSaving()).reversed());
+        return recommendations;
+    }
+
+    private double documentCount(String index) {
+        long count = statistics == null ? -1 : statistics.documentCount(index);
+        return count < 0 ? Double.NaN : count;
+    }
+
+    public void reset() {
+        usage.clear();
+    }
+}
@@ -0,0 +1,179 @@
+package org.example;
+
+import io.lettuce.core.RedisCommandExecutionException;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.output.NestedMultiOutput;
+import io.lettuce.core.protocol.CommandArgs;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.create.index.CreateIndex;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * Translates {@code CREATE INDEX name ON table (f1, f2, ...)} into {@code FT.CREATE}, or into
+ * {@code FT.ALTER ... SCHEMA ADD} for the fields an existing index lacks. The RediSearch index is
+ * the one the translator queries for the table (the SQL index name is not used), attribute types
+ * come from the translator's field types, fields with a suffix-trie LIKE strategy get
+ * {@code WITHSUFFIXTRIE}, the configured sortable fields get {@code SORTABLE} and the configured
+ * no-stem TEXT fields get {@code NOSTEM}.
+ */
+public class IndexDdl {
+
+    private final CohQLToRedisTranslator translator;
+    private final Map<String, String> prefixesByTable;
+    private final Set<String> sortableFields;
+    private final Set<String> noStemFields;
+
+    public IndexDdl(CohQLToRedisTranslator translator, Map<String, String> prefixesByTable, Set<String> sortableFields) {
+        this(translator, prefixesByTable, sortableFields, Set.of());
+    }
+
+    /**
+     * @param prefixesByTable key prefix of each table's hashes; defaults to {@code "<table>:"}
+     * @param sortableFields  fields to declare SORTABLE, e.g. from {@link IndexAdvisor} recommendations
+     * @param noStemFields    TEXT fields to declare NOSTEM, so their terms are indexed as written
+     */
+    public IndexDdl(CohQLToRedisTranslator translator, Map<String, String> prefixesByTable, Set<String> sortableFields,
+                    Set<String> noStemFields) {
+        this.translator = translator;
+        this.prefixesByTable = Map.copyOf(prefixesByTable);
+        this.sortableFields = Set.copyOf(sortableFields);
+        this.noStemFields = Set.copyOf(noStemFields);
+    }
+
+    /**
+     * A RediSearch command and its arguments.
+     */
+    public record Command(String name, List<String> arguments) {
+
+        public Command {
+            arguments = List.copyOf(arguments);
+        }
+
+        @Override
+        public String toString() {
+            return name + " " + String.join(" ", arguments);
+        }
+    }
+
+    private record Definition(String table, String index, List<String> fields) {
+    }
+
+    public Command create(String cohql) throws JSQLParserException {
+        Definition definition = parse(cohql);
+        List<String> arguments = new ArrayList<>(List.of(definition.index(), "ON", "HASH", "PREFIX", "1",
+                prefixesByTable.getOrDefault(definition.table(), definition.table() + ":"), "SCHEMA"));
+        for (String field : definition.fields()) {
+            arguments.addAll(attribute(field));
+        }
+        return new Command("FT.CREATE", arguments);
+    }
+
+    /**
+     * @param existingFields attributes the index already has
+     * @return the FT.ALTER adding the missing fields, or null if there are none
+     */
+    public Command alter(String cohql, Set<String> existingFields) throws JSQLParserException {
+        Definition definition = parse(cohql);
+        List<String> arguments = new ArrayList<>(List.of(definition.index(), "SCHEMA", "ADD"));
+        for (String field : definition.fields()) {
+            if (!existingFields.contains(field)) arguments.addAll(attribute(field));
+        }
+        return arguments.size() == 3 ? null : new Command("FT.ALTER", arguments);
+    }
+
+    /**
+     * Creates the index, or adds the missing fields if it exists (looked up with FT.INFO).
+     *
+     * @return the command sent, or null if the index already has every field
+     */
+    public Command apply(StatefulRedisConnection<String, ByteBuffer> connection, String cohql) throws JSQLParserException {
+        Definition definition = parse(cohql);
+        Set<String> existing = existingFields(connection, definition.index());
+        Command command = existing == null ? create(cohql) : alter(cohql, existing);
+        if (command == null) return null;
+
+        SearchCommand keyword = existing == null ? SearchCommand.FT_CREATE : SearchCommand.FT_ALTER;
+        CommandArgs<String, ByteBuffer> args = new CommandArgs<>(ByteBufferCodec.INSTANCE);
+        for (String argument : command.arguments()) {
+            args.add(argument);
+        }
+        connection.sync().dispatch(keyword, new NestedMultiOutput<>(ByteBufferCodec.INSTANCE), args);
+        return command;
+    }
+
+    /**
+     * @return the index's attribute names, or null if it does not exist
+     */
+    private static Set<String> existingFields(StatefulRedisConnection<String, ByteBuffer> connection, String index) {
+        List<Object> info;
+        try {
+            info = connection.sync().dispatch(SearchCommand.FT_INFO, new NestedMultiOutput<>(ByteBufferCodec.INSTANCE),
+                    new CommandArgs<>(ByteBufferCodec.INSTANCE).add(index));
+        } catch (RedisCommandExecutionException e) {
+            if (e.getMessage() != null && e.getMessage().toLowerCase(Locale.ROOT).contains("unknown index")) return null;
+            throw e;
+        }
+        return attributeNames(info);
+    }
+
+    /**
+     * Reads the {@code attributes} section of an FT.INFO reply; each attribute is a flat
+     * key/value list whose {@code attribute} entry is the name queries use.
+     */
+    static Set<String> attributeNames(List<Object> info) {
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i + 1 < info.size(); i += 2) {
+            if (!"attributes".equals(AsciiBytes.asString(info.get(i)))) continue;
+            for (Object attribute : (List<?>) info.get(i + 1)) {
+                List<?> properties = (List<?>) attribute;
+                for (int p = 0; p + 1 < properties.size(); p += 2) {
+                    if ("attribute".equals(AsciiBytes.asString(properties.get(p)))) {
+                        names.add(AsciiBytes.asString(properties.get(p + 1)));
+                    }
+                }
+            }
+        }
+        return names;
+    }
+
+    private List<String> attribute(String field) {
+        String type = translator.getFieldTypes().get(field);
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown field: " + field);
+        }
+        List<String> attribute = new ArrayList<>(List.of(field));
+        switch (CohQLToRedisTranslator.FieldType.valueOf(type)) {
+            case TEXT -> {
+                attribute.add("TEXT");
+                if (noStemFields.contains(field)) attribute.add("NOSTEM");
+            }
+            case TAG -> attribute.add("TAG");
+            // DATE and TIMESTAMP are stored as epoch milliseconds
+            case NUMERIC, DATE, TIMESTAMP -> attribute.add("NUMERIC");
+            case GEO -> attribute.add("GEO");
+            case GEOSHAPE -> attribute.add("GEOSHAPE");
+            case VECTOR -> throw new IllegalArgumentException(
+                    "VECTOR fields need an algorithm, dimension and metric; create them with FT.CREATE directly: " + field);
+        }
+        if (translator.getLikePlanner().getSuffixTrieFields().contains(field)) {
+            attribute.add("WITHSUFFIXTRIE");
+        }
+        if (sortableFields.contains(field)) {
+            attribute.add("SORTABLE");
+        }
+        return attribute;
+    }
+
+    private Definition parse(String cohql) throws JSQLParserException {
+        Statement statement = CCJSqlParserUtil.parse(cohql);
+        if (!(statement instanceof CreateIndex createIndex)) {
+            throw new UnsupportedOperationException("Expected CREATE INDEX: " + cohql);
+        }
+        String table = createIndex.getTable().getName();
+        return new Definition(table, translator.indexFor(table), createIndex.getIndex().getColumnsNames());
+    }
+}
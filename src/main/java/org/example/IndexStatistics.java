@@ -0,0 +1,21 @@
+package org.example;
+
+/**
+ * Index statistics used by {@link CostEstimator}.
+ */
+public interface IndexStatistics {
+
+    long documentCount(String index);
+
+    /**
+     * Number of documents matching a RediSearch query fragment, or -1 if unknown.
+     */
+    long count(String index, String query);
+
+    /**
+     * How long counts stay current. Plans costed from them are re-estimated once this has passed.
+     */
+    default long maxAgeNanos() {
+        return Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,26 @@
+package org.example;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A translated INSERT: the target table and one hash per row, values already encoded for
+ * storage (see {@link FieldEncoder}). Loaded by {@link BulkLoader}.
+ */
+public record InsertPlan(String table, List<Document> documents) {
+
+    public InsertPlan {
+        documents = List.copyOf(documents);
+    }
+
+    /**
+     * A Redis hash to write: its key within the table and encoded field values; null values are
+     * already dropped.
+     */
+    public record Document(String key, Map<String, String> fields) {
+
+        public Document {
+            fields = Map.copyOf(fields);
+        }
+    }
+}
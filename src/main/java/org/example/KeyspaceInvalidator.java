@@ -0,0 +1,96 @@
+package org.example;
+
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Invalidates a {@link QueryResultCache} from Redis keyspace notifications. The server must have
+ * keyspace events enabled for the relevant classes, e.g. {@code notify-keyspace-events Khgx}.
+ * <p>
+ * Removing a document can only shrink the results that matched it, so deletions and
+ * expirations drop the entries that contained it or may have counted it (see
+ * {@link QueryResultCache#invalidateDocument}). Any other write may make the document newly match
+ * an arbitrary query on its index and drops the whole index: telling which cached queries it now
+ * satisfies would mean reading the hash back and evaluating each query's RediSearch syntax,
+ * tokenization and stemming on the client, and a notification carries only the key and the
+ * command.
+ * <p>
+ * When more than {@code maxEventsPerSecond} events arrive for an index within a second, the rest
+ * of that second skips the per-key bookkeeping and invalidates the whole index on every event.
+ * Glob characters in the prefixes are escaped in the subscribed patterns.
+ */
+public class KeyspaceInvalidator extends RedisPubSubAdapter<String, String> {
+
+    private static final Set<String> REMOVALS = Set.of("del", "unlink", "expired", "evicted");
+
+    private final QueryResultCache cache;
+    private final Map<String, String> prefixesByIndex;
+    private final int maxEventsPerSecond;
+    private final Map<String, long[]> windows = new LinkedHashMap<>();
+    private StatefulRedisPubSubConnection<String, String> connection;
+
+    public KeyspaceInvalidator(QueryResultCache cache, Map<String, String> prefixesByIndex, int maxEventsPerSecond) {
+        this.cache = cache;
+        this.prefixesByIndex = Map.copyOf(prefixesByIndex);
+        this.maxEventsPerSecond = maxEventsPerSecond;
+    }
+
+    public void start(StatefulRedisPubSubConnection<String, String> connection) {
+        this.connection = connection;
+        connection.addListener(this);
+        connection.sync().psubscribe(patterns());
+    }
+
+    /**
+     * One keyspace pattern per distinct prefix, with glob characters in the prefix escaped.
+     */
+    String[] patterns() {
+        return prefixesByIndex.values().stream()
+                .map(prefix -> "__keyspace@*__:" + prefix.replaceAll("[*?\\[\\]\\\\]", "\\\\$0") + "*")
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    public void stop() {
+        if (connection == null) return;
+        connection.removeListener(this);
+        connection.sync().punsubscribe();
+        connection = null;
+    }
+
+    @Override
+    public void message(String pattern, String channel, String event) {
+        int separator = channel.indexOf("__:");
+        if (separator < 0) return;
+        onEvent(channel.substring(separator + 3), event);
+    }
+
+    void onEvent(String documentKey, String event) {
+        for (Map.Entry<String, String> index : prefixesByIndex.entrySet()) {
+            if (!documentKey.startsWith(index.getValue())) continue;
+            if (!overloaded(index.getKey()) && REMOVALS.contains(event)) {
+                cache.invalidateDocument(index.getKey(), documentKey);
+            } else {
+                // A write can newly satisfy any cached query, which only the server can evaluate
+                cache.invalidateIndex(index.getKey());
+            }
+        }
+    }
+
+    /**
+     * Counts the event against the index's one-second window and reports whether it is over budget.
+     */
+    private synchronized boolean overloaded(String index) {
+        long second = System.nanoTime() / 1_000_000_000L;
+        long[] window = windows.computeIfAbsent(index, i -> new long[2]);
+        if (window[0] != second) {
+            window[0] = second;
+            window[1] = 0;
+        }
+        return ++window[1] > maxEventsPerSecond;
+    }
+}
@@ -0,0 +1,80 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency recorder with log-linear buckets: values below 128ns are exact, larger ones
+ * fall into 64 sub-buckets per power of two, so percentiles are within ~1.6% of the recorded
+ * value. Fixed size (under 4k buckets) regardless of how many samples are recorded.
+ */
+public final class LatencyHistogram {
+
+    private static final int LINEAR = 128;
+    private static final int SUB_BUCKETS = 64;
+    private static final int BUCKETS = LINEAR + (63 - 7) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private volatile long max;
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucket(value));
+        count.increment();
+        sum.add(value);
+        if (value > max) {
+            synchronized (this) {
+                if (value > max) max = value;
+            }
+        }
+    }
+
+    static int bucket(long value) {
+        if (value < LINEAR) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) ((value >>> (exponent - 6)) & (SUB_BUCKETS - 1));
+        return LINEAR + (exponent - 7) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Upper bound of the values in {@code bucket}.
+     */
+    static long upperBound(int bucket) {
+        if (bucket < LINEAR) return bucket;
+        int exponent = (bucket - LINEAR) / SUB_BUCKETS + 7;
+        long sub = (bucket - LINEAR) % SUB_BUCKETS;
+        long width = 1L << (exponent - 6);
+        return (1L << exponent) + sub * width + width - 1;
+    }
+
+    /**
+     * @param quantile between 0 and 1, e.g. 0.999
+     * @return the smallest bucket bound covering {@code quantile} of the samples, or 0 if empty
+     */
+    public long percentile(double quantile) {
+        long total = count.sum();
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(upperBound(i), max);
+        }
+        return max;
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long max() {
+        return max;
+    }
+
+    public double mean() {
+        long total = count.sum();
+        return total == 0 ? 0 : (double) sum.sum() / total;
+    }
+}
@@ -0,0 +1,195 @@
+package org.example;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Chooses how a CohQL LIKE pattern is run in RediSearch. Patterns are classified as exact, prefix
+ * ({@code 'abc%'}), suffix ({@code '%abc'}), infix ({@code '%abc%'}) or general (any {@code _} or an
+ * inner {@code %}). The first four map directly onto TEXT or TAG wildcard syntax; suffix and infix
+ * are only cheap on fields indexed {@code WITHSUFFIXTRIE}. General patterns are narrowed to the
+ * best prefix/suffix/infix of their literal segments and the exact match is finished on the
+ * client, when the LIKE is a top-level conjunct (see {@link #narrow}).
+ * <p>
+ * Both halves follow RediSearch matching: a pattern matches a TEXT value if it matches one of the
+ * value's tokens, or a run of tokens when the pattern itself contains separators, and a TAG value
+ * if it matches one of its comma-separated tags. Wildcards do not cross a separator and case is
+ * ignored. Stemming is not reproduced on the client, so a client-filtered pattern only matches
+ * words as written.
+ * <p>
+ * Plans are counted under {@code KIND:STRATEGY} each time a query using them is translated,
+ * cached or not (see {@link #record}), readable through {@link #getPlanCounts()}; a narrowed
+ * general pattern is counted both as {@code GENERAL:CLIENT_FILTER} and under the strategy Redis
+ * runs for it.
+ */
+public class LikePlanner {
+
+    // RediSearch ignores wildcard terms shorter than MINPREFIX (2 by default)
+    static final int MIN_LITERAL = 2;
+
+    // RediSearch's default TEXT separators, plus whitespace
+    private static final String TEXT_SEPARATOR = "[\\s,.<>{}\\[\\]\"':;!@#$%^&*()\\-+=~]";
+    private static final String TAG_SEPARATOR = "\\s*,\\s*";
+
+    public enum Kind {
+        EXACT, PREFIX, SUFFIX, INFIX, GENERAL
+    }
+
+    public record Plan(Kind kind, String strategy, String fragment) {
+
+        String key() {
+            return kind + ":" + strategy;
+        }
+    }
+
+    /**
+     * @param redisPattern  a prefix, suffix or infix LIKE pattern that Redis can evaluate, or null
+     * @param clientPattern regex the field value must fully match on the client (see {@link #toRegex})
+     */
+    record Narrowing(String redisPattern, Pattern clientPattern) {
+
+        String key() {
+            return Kind.GENERAL + ":" + (redisPattern == null ? "CLIENT_SCAN" : "CLIENT_FILTER");
+        }
+    }
+
+    private final Set<String> suffixTrieFields;
+    private final Map<String, LongAdder> planCounts = new ConcurrentHashMap<>();
+
+    public LikePlanner() {
+        this(Set.of());
+    }
+
+    /**
+     * @param suffixTrieFields TEXT/TAG fields created with {@code WITHSUFFIXTRIE}
+     */
+    public LikePlanner(Set<String> suffixTrieFields) {
+        this.suffixTrieFields = Set.copyOf(suffixTrieFields);
+    }
+
+    public static Kind classify(String pattern) {
+        boolean leading = pattern.startsWith("%");
+        boolean trailing = pattern.length() > 1 && pattern.endsWith("%");
+        String inner = pattern.substring(leading ? 1 : 0, pattern.length() - (trailing ? 1 : 0));
+        if (pattern.contains("_") || inner.contains("%") || inner.isEmpty()) {
+            return pattern.contains("%") || pattern.contains("_") ? Kind.GENERAL : Kind.EXACT;
+        }
+        if (leading && trailing) return Kind.INFIX;
+        if (leading) return Kind.SUFFIX;
+        if (trailing) return Kind.PREFIX;
+        return Kind.EXACT;
+    }
+
+    /**
+     * Plans a LIKE used anywhere in a condition. General patterns keep the legacy wildcard
+     * translation here, since a client-side filter is only sound for top-level conjuncts.
+     */
+    Plan plan(String field, String fieldType, String pattern, boolean not) {
+        Kind kind = classify(pattern);
+        boolean tag = CohQLToRedisTranslator.FieldType.TAG.name().equals(fieldType);
+        String fragment;
+        String strategy;
+        if (kind == Kind.GENERAL) {
+            strategy = "WILDCARD";
+            fragment = "@" + field + ":" + pattern.replace("%", "*").replace("_", "?");
+        } else {
+            String literal = pattern.replace("%", "");
+            strategy = strategy(field, tag, kind);
+            fragment = fragment(field, tag, kind, literal);
+        }
+        return new Plan(kind, strategy, not ? "-" + fragment : fragment);
+    }
+
+    /**
+     * Narrows a general pattern that is a top-level conjunct: Redis evaluates the best single
+     * wildcard over its literal segments and the returned rows are filtered against the full
+     * pattern. The Redis pattern is null when no segment is long enough to narrow on.
+     */
+    Narrowing narrow(String pattern, boolean tag) {
+        String[] segments = pattern.split("[%_]", -1);
+        String leadingSegment = segments[0];
+        String trailingSegment = segments[segments.length - 1];
+        String redisPattern = null;
+        if (leadingSegment.length() >= MIN_LITERAL) {
+            redisPattern = leadingSegment + "%";
+        } else {
+            String literal = "";
+            for (String segment : segments) {
+                if (segment.length() > literal.length()) literal = segment;
+            }
+            if (literal.length() >= MIN_LITERAL) {
+                redisPattern = literal.equals(trailingSegment) ? "%" + literal : "%" + literal + "%";
+            }
+        }
+        return new Narrowing(redisPattern, toRegex(pattern, tag));
+    }
+
+    /**
+     * Counts one use of each plan, given by {@link Plan#key()} or {@link Narrowing#key()}.
+     */
+    void record(List<String> plans) {
+        for (String plan : plans) {
+            planCounts.computeIfAbsent(plan, k -> new LongAdder()).increment();
+        }
+    }
+
+    Set<String> getSuffixTrieFields() {
+        return suffixTrieFields;
+    }
+
+    public Map<String, Long> getPlanCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        planCounts.forEach((plan, count) -> counts.put(plan, count.sum()));
+        return counts;
+    }
+
+    private String strategy(String field, boolean tag, Kind kind) {
+        String strategy = (tag ? "TAG_" : "TEXT_") + kind.name();
+        if (kind == Kind.SUFFIX || kind == Kind.INFIX) {
+            strategy += suffixTrieFields.contains(field) ? "_TRIE" : "_SCAN";
+        }
+        return strategy;
+    }
+
+    private static String fragment(String field, boolean tag, Kind kind, String literal) {
+        String value = tag ? CohQLToRedisTranslator.escapeValue(literal) : literal;
+        String wildcard = switch (kind) {
+            case EXACT -> value;
+            case PREFIX -> value + "*";
+            case SUFFIX -> "*" + value;
+            case INFIX -> "*" + value + "*";
+            case GENERAL -> throw new IllegalArgumentException("General patterns have no single wildcard form");
+        };
+        return tag ? "@" + field + ":{" + wildcard + "}" : "@" + field + ":" + wildcard;
+    }
+
+    /**
+     * A regex that fully matches a field value when {@code pattern} matches one of its tokens
+     * (TEXT) or tags (TAG), ignoring case, with {@code %} and {@code _} kept within a token.
+     */
+    static Pattern toRegex(String pattern, boolean tag) {
+        String separator = tag ? TAG_SEPARATOR : TEXT_SEPARATOR;
+        String tokenChar = tag ? "[^,]" : "(?:(?!" + TEXT_SEPARATOR + ").)";
+        StringBuilder regex = new StringBuilder("(?:.*" + separator + ")?");
+        if (tag) regex.append("\\s*");
+        StringBuilder literal = new StringBuilder();
+        for (char c : pattern.toCharArray()) {
+            if (c == '%' || c == '_') {
+                if (literal.length() > 0) regex.append(Pattern.quote(literal.toString()));
+                literal.setLength(0);
+                regex.append(tokenChar).append(c == '%' ? "*" : "");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) regex.append(Pattern.quote(literal.toString()));
+        if (tag) regex.append("\\s*");
+        regex.append("(?:").append(separator).append(".*)?");
+        return Pattern.compile(regex.toString(), Pattern.DOTALL | Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    }
+}
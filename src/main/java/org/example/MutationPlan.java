@@ -0,0 +1,33 @@
+package org.example;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A translated DELETE or UPDATE: the search selecting the affected documents and, for UPDATE,
+ * the hash fields to set, already encoded for storage (see {@link FieldEncoder}), and the most
+ * documents to change ({@link #UNLIMITED} without a LIMIT clause).
+ */
+public record MutationPlan(Kind kind, SearchRequest selection, Map<String, String> assignments, long limit) {
+
+    public static final long UNLIMITED = Long.MAX_VALUE;
+
+    public enum Kind {
+        DELETE,
+        UPDATE
+    }
+
+    public MutationPlan {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must not be negative: " + limit);
+        }
+        assignments = Collections.unmodifiableMap(new LinkedHashMap<>(assignments));
+    }
+
+    @Override
+    public String toString() {
+        String plan = kind == Kind.DELETE ? "DELETE " + selection : "UPDATE " + assignments + " " + selection;
+        return limit == UNLIMITED ? plan : plan + " LIMIT " + limit;
+    }
+}
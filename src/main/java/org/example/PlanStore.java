@@ -0,0 +1,161 @@
+package org.example;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Persists a translator's compiled plans so a new instance starts warm. The file is a compact
+ * binary dump, written atomically and read back through a memory-mapped buffer. It is stamped
+ * with the translator's schema hash; a file written under another schema is ignored, and so is a
+ * truncated or corrupt one. Plans keep the time they were compiled, so costed plans are reused
+ * until their statistics expire, as they would have been in the process that wrote them.
+ * <p>
+ * Layout: magic, version, schema hash, plan count, then per plan the CohQL text, client-filtering
+ * flag, canonical form, index, query, estimated cost, client filters, arguments, parameters, LIKE
+ * plan keys, field uses and compile time. Strings are length-prefixed UTF-8 (length -1 for null).
+ */
+public final class PlanStore {
+
+    private static final int MAGIC = 0x43514C50; // "CQLP"
+    private static final int VERSION = 5;
+
+    private PlanStore() {
+    }
+
+    /**
+     * @return the number of plans written
+     */
+    public static int save(CohQLToRedisTranslator translator, Path file) throws IOException {
+        List<CompiledPlan> plans = new ArrayList<>(translator.compiledPlans());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(translator.schemaHash());
+            out.writeInt(plans.size());
+            for (CompiledPlan plan : plans) {
+                SearchRequest request = plan.request();
+                writeString(out, plan.cohql());
+                out.writeBoolean(plan.clientFiltering());
+                writeString(out, plan.canonical());
+                writeString(out, request.index());
+                writeString(out, request.query());
+                out.writeDouble(request.estimatedCost());
+                out.writeInt(request.clientFilters().size());
+                for (SearchRequest.ClientFilter filter : request.clientFilters()) {
+                    writeString(out, filter.field());
+                    writeString(out, filter.pattern().pattern());
+                    out.writeInt(filter.pattern().flags());
+                }
+                writeStrings(out, request.arguments());
+                writeStrings(out, request.parameters());
+                writeStrings(out, plan.likePlans());
+                writeStrings(out, plan.fieldUses());
+                out.writeLong(plan.compiledAtMillis());
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return plans.size();
+    }
+
+    /**
+     * Loads plans into the translator's cache.
+     *
+     * @return the number of plans loaded; 0 if the file is missing, corrupt or for another schema
+     */
+    public static int load(CohQLToRedisTranslator translator, Path file) throws IOException {
+        if (!Files.exists(file)) return 0;
+        List<CompiledPlan> plans = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.getInt() != MAGIC || in.getInt() != VERSION || in.getLong() != translator.schemaHash()) {
+                return 0;
+            }
+            int count = readCount(in);
+            for (int i = 0; i < count; i++) {
+                String cohql = readString(in);
+                boolean clientFiltering = in.get() != 0;
+                String canonical = readString(in);
+                String index = readString(in);
+                String query = readString(in);
+                double estimatedCost = in.getDouble();
+                int filterCount = readCount(in);
+                List<SearchRequest.ClientFilter> filters = new ArrayList<>(filterCount);
+                for (int f = 0; f < filterCount; f++) {
+                    String field = readString(in);
+                    String regex = readString(in);
+                    filters.add(new SearchRequest.ClientFilter(field, Pattern.compile(regex, in.getInt())));
+                }
+                List<String> arguments = readStrings(in);
+                List<String> parameters = readStrings(in);
+                List<String> likePlans = readStrings(in);
+                List<String> fieldUses = readStrings(in);
+                plans.add(new CompiledPlan(cohql, clientFiltering, canonical,
+                        new SearchRequest(index, query, estimatedCost, filters, arguments, parameters), likePlans,
+                        fieldUses, in.getLong()));
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            // Truncated or corrupt file, or a regex that will not compile; start cold rather than fail startup
+            return 0;
+        }
+        translator.preload(plans);
+        return plans.size();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    /**
+     * Reads a count of entries, each at least four bytes long, that the rest of the file can hold.
+     */
+    private static int readCount(MappedByteBuffer in) {
+        int count = in.getInt();
+        if (count < 0 || count > in.remaining() / Integer.BYTES) {
+            throw new IllegalArgumentException("Corrupt count: " + count);
+        }
+        return count;
+    }
+
+    private static List<String> readStrings(MappedByteBuffer in) {
+        int count = readCount(in);
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    private static String readString(MappedByteBuffer in) {
+        int length = in.getInt();
+        if (length == -1) return null;
+        if (length < 0 || length > in.remaining()) {
+            throw new IllegalArgumentException("Corrupt string length: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,107 @@
+package org.example;
+
+import java.util.*;
+
+/**
+ * Parsed profile section of an {@code FT.PROFILE ... SEARCH QUERY} reply: overall timings and the
+ * per-iterator and per-result-processor times and counts. Times are in milliseconds as reported
+ * by RediSearch; keys other than Type/Time/Counter are kept as attributes (e.g. Term, Query type).
+ */
+public record ProfileReport(double totalTimeMs, double parsingTimeMs, List<Stage> iterators, List<Stage> resultProcessors) {
+
+    public record Stage(String type, double timeMs, long counter, Map<String, String> attributes, List<Stage> children) {
+
+        void render(StringBuilder sb, int depth) {
+            sb.append("  ".repeat(depth)).append(type);
+            attributes.forEach((key, value) -> sb.append(' ').append(key).append('=').append(value));
+            sb.append(" time=").append(timeMs).append("ms counter=").append(counter).append('\n');
+            for (Stage child : children) {
+                child.render(sb, depth + 1);
+            }
+        }
+    }
+
+    static ProfileReport parse(List<?> profile) {
+        double total = Double.NaN;
+        double parsing = Double.NaN;
+        List<Stage> iterators = new ArrayList<>();
+        List<Stage> processors = new ArrayList<>();
+        for (Object entry : profile) {
+            if (!(entry instanceof List<?> section) || section.size() < 2) continue;
+            switch (AsciiBytes.asString(section.get(0))) {
+                case "Total profile time" -> total = number(section.get(1));
+                case "Parsing time" -> parsing = number(section.get(1));
+                case "Iterators profile" -> stages(section, iterators);
+                case "Result processors profile" -> stages(section, processors);
+                default -> {
+                    // Pipeline creation time, warnings and other sections are not broken out
+                }
+            }
+        }
+        return new ProfileReport(total, parsing, iterators, processors);
+    }
+
+    private static void stages(List<?> values, List<Stage> into) {
+        for (int i = 1; i < values.size(); i++) {
+            if (values.get(i) instanceof List<?> list && !list.isEmpty()) {
+                if (list.get(0) instanceof List<?>) {
+                    stages(prepend(list), into);
+                } else {
+                    into.add(stage(list));
+                }
+            }
+        }
+    }
+
+    private static Stage stage(List<?> fields) {
+        String type = "?";
+        double time = Double.NaN;
+        long counter = -1;
+        Map<String, String> attributes = new LinkedHashMap<>();
+        List<Stage> children = new ArrayList<>();
+        for (int i = 0; i < fields.size(); i++) {
+            String key = AsciiBytes.asString(fields.get(i));
+            if (key.equals("Child iterators")) {
+                // Children follow as the remaining elements (or as one nested list on some versions)
+                stages(fields.subList(i, fields.size()), children);
+                break;
+            }
+            if (i + 1 >= fields.size()) break;
+            Object value = fields.get(++i);
+            switch (key) {
+                case "Type" -> type = AsciiBytes.asString(value);
+                case "Time" -> time = number(value);
+                case "Counter" -> counter = (long) number(value);
+                default -> attributes.put(key, AsciiBytes.asString(value));
+            }
+        }
+        return new Stage(type, time, counter, attributes, children);
+    }
+
+    private static List<Object> prepend(List<?> list) {
+        List<Object> values = new ArrayList<>(list.size() + 1);
+        values.add(null);
+        values.addAll(list);
+        return values;
+    }
+
+    private static double number(Object value) {
+        if (value instanceof Number number) return number.doubleValue();
+        try {
+            return Double.parseDouble(AsciiBytes.asString(value));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Profile:  total=").append(totalTimeMs).append("ms parsing=").append(parsingTimeMs).append("ms\n");
+        sb.append("  Iterators:\n");
+        for (Stage stage : iterators) stage.render(sb, 2);
+        sb.append("  Result processors:\n");
+        for (Stage stage : resultProcessors) stage.render(sb, 2);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,49 @@
+package org.example;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost-based admission control. Queries estimated above {@code maxCost} are rejected outright;
+ * queries above {@code throttleCost} share a limited number of concurrent slots and are rejected
+ * if no slot frees up within {@code maxQueueWait}. Queries without an estimate are admitted.
+ */
+public class QueryAdmission {
+
+    private static final Permit NO_PERMIT = () -> { };
+
+    private final double maxCost;
+    private final double throttleCost;
+    private final Semaphore throttled;
+    private final long maxQueueWaitNanos;
+
+    public QueryAdmission(double maxCost, double throttleCost, int maxConcurrentThrottled, Duration maxQueueWait) {
+        this.maxCost = maxCost;
+        this.throttleCost = throttleCost;
+        this.throttled = new Semaphore(maxConcurrentThrottled);
+        this.maxQueueWaitNanos = maxQueueWait.toNanos();
+    }
+
+    Permit admit(SearchRequest request) {
+        double cost = request.estimatedCost();
+        if (Double.isNaN(cost) || cost <= throttleCost) return NO_PERMIT;
+        if (cost > maxCost) {
+            throw new QueryRejectedException("Estimated cost " + cost + " exceeds budget " + maxCost + ": " + request, cost);
+        }
+        try {
+            if (!throttled.tryAcquire(maxQueueWaitNanos, TimeUnit.NANOSECONDS)) {
+                throw new QueryRejectedException("Too many expensive queries in flight: " + request, cost);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QueryRejectedException("Interrupted waiting for admission: " + request, cost);
+        }
+        return throttled::release;
+    }
+
+    interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,42 @@
+package org.example;
+
+import java.util.List;
+
+/**
+ * Result of {@link CohQLToRedisTranslator#explain}: how a CohQL query was parsed, rewritten and
+ * emitted, and optionally how RediSearch executed it ({@link RedisQueryExecutor#explain}).
+ */
+public record QueryExplanation(String cohql,
+                               String canonical,
+                               ExplainNode tree,
+                               List<String> rewrites,
+                               SearchRequest request,
+                               ProfileReport profile) {
+
+    QueryExplanation withProfile(ProfileReport profile) {
+        return new QueryExplanation(cohql, canonical, tree, rewrites, request, profile);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("CohQL:    ").append(cohql).append('\n');
+        sb.append("Parsed:   ").append(canonical).append('\n');
+        tree.render(sb, 1);
+        sb.append("Rewrites:").append(rewrites.isEmpty() ? " none" : "").append('\n');
+        for (String rewrite : rewrites) {
+            sb.append("  ").append(rewrite).append('\n');
+        }
+        sb.append("Emitted:  ").append(request).append('\n');
+        if (!Double.isNaN(request.estimatedCost())) {
+            sb.append("Cost:     ").append(request.estimatedCost()).append('\n');
+        }
+        for (SearchRequest.ClientFilter filter : request.clientFilters()) {
+            sb.append("Client:   ").append(filter.field()).append(" ~ ").append(filter.pattern()).append('\n');
+        }
+        if (profile != null) {
+            sb.append(profile);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,120 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * FT.SEARCH execution options for one query, given either as a hint comment in the CohQL, such as
+ * {@code /*+ TIMEOUT(50) NOCONTENT} after SELECT, or passed to
+ * {@link CohQLToRedisTranslator#translateRequest(String, QueryOptions)} as defaults for options the
+ * query does not set. Unset options are null or false. The translator validates them against its
+ * schema.
+ *
+ * @param timeoutMillis server-side query timeout; 0 disables it
+ * @param inFields      TEXT fields that free-text terms are restricted to
+ * @param slop          maximum number of intervening terms between phrase terms
+ * @param dialect       query dialect; must be at least what the query needs (2 for parameters, 3 for GEOSHAPE)
+ */
+public record QueryOptions(Long timeoutMillis, boolean noContent, boolean verbatim, List<String> inFields,
+                           Integer slop, boolean inOrder, Integer dialect) {
+
+    public static final QueryOptions NONE = new QueryOptions(null, false, false, List.of(), null, false, null);
+
+    private static final Pattern HINT = Pattern.compile("\\s*(\\w+)\\s*(?:\\(([^)]*)\\))?\\s*,?");
+
+    public QueryOptions {
+        inFields = List.copyOf(inFields);
+        if (timeoutMillis != null && timeoutMillis < 0) {
+            throw new IllegalArgumentException("TIMEOUT must not be negative: " + timeoutMillis);
+        }
+        if (slop != null && slop < 0) {
+            throw new IllegalArgumentException("SLOP must not be negative: " + slop);
+        }
+        if (dialect != null && (dialect < 1 || dialect > 4)) {
+            throw new IllegalArgumentException("DIALECT must be between 1 and 4: " + dialect);
+        }
+    }
+
+    public static QueryOptions timeout(long millis) {
+        return NONE.withTimeout(millis);
+    }
+
+    public QueryOptions withTimeout(long millis) {
+        return new QueryOptions(millis, noContent, verbatim, inFields, slop, inOrder, dialect);
+    }
+
+    /**
+     * Parses the body of a hint comment, e.g. {@code TIMEOUT(50) NOCONTENT INFIELDS(name, email)}.
+     */
+    public static QueryOptions parse(String hints) {
+        Long timeout = null;
+        boolean noContent = false, verbatim = false, inOrder = false;
+        List<String> inFields = List.of();
+        Integer slop = null, dialect = null;
+
+        Matcher matcher = HINT.matcher(hints);
+        int position = 0;
+        while (!hints.substring(position).isBlank()) {
+            if (!matcher.region(position, hints.length()).lookingAt()) {
+                throw new IllegalArgumentException("Malformed query hint: " + hints.strip());
+            }
+            String name = matcher.group(1).toUpperCase(Locale.ROOT);
+            String argument = matcher.group(2);
+            switch (name) {
+                case "TIMEOUT" -> timeout = Long.parseLong(required(name, argument));
+                case "NOCONTENT" -> noContent = flag(name, argument);
+                case "VERBATIM" -> verbatim = flag(name, argument);
+                case "INORDER" -> inOrder = flag(name, argument);
+                case "INFIELDS" -> inFields = fields(required(name, argument));
+                case "SLOP" -> slop = Integer.parseInt(required(name, argument));
+                case "DIALECT" -> dialect = Integer.parseInt(required(name, argument));
+                default -> throw new IllegalArgumentException("Unknown query hint: " + matcher.group(1));
+            }
+            position = matcher.end();
+        }
+        return new QueryOptions(timeout, noContent, verbatim, inFields, slop, inOrder, dialect);
+    }
+
+    private static String required(String hint, String argument) {
+        if (argument == null || argument.isBlank()) {
+            throw new IllegalArgumentException(hint + " needs an argument, e.g. " + hint + "(10)");
+        }
+        return argument.strip();
+    }
+
+    private static boolean flag(String hint, String argument) {
+        if (argument != null) {
+            throw new IllegalArgumentException(hint + " takes no argument");
+        }
+        return true;
+    }
+
+    private static List<String> fields(String argument) {
+        List<String> fields = new ArrayList<>();
+        for (String field : argument.split(",")) {
+            if (!field.isBlank()) fields.add(field.strip());
+        }
+        return fields;
+    }
+
+    /**
+     * These options as FT.SEARCH arguments, without DIALECT, which the translator settles.
+     */
+    List<String> arguments() {
+        List<String> arguments = new ArrayList<>();
+        if (noContent) arguments.add("NOCONTENT");
+        if (verbatim) arguments.add("VERBATIM");
+        if (!inFields.isEmpty()) {
+            arguments.add("INFIELDS");
+            arguments.add(Integer.toString(inFields.size()));
+            arguments.addAll(inFields);
+        }
+        if (slop != null) arguments.addAll(List.of("SLOP", slop.toString()));
+        if (inOrder) arguments.add("INORDER");
+        if (timeoutMillis != null) arguments.addAll(List.of("TIMEOUT", timeoutMillis.toString()));
+        return arguments;
+    }
+}
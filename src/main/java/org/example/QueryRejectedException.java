@@ -0,0 +1,20 @@
+package org.example;
+
+/**
+ * Thrown when a query's estimated cost is over the admission budget, before it is sent to Redis.
+ */
+public class QueryRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final double estimatedCost;
+
+    public QueryRejectedException(String message, double estimatedCost) {
+        super(message);
+        this.estimatedCost = estimatedCost;
+    }
+
+    public double getEstimatedCost() {
+        return estimatedCost;
+    }
+}
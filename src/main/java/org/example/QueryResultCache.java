@@ -0,0 +1,163 @@
+package org.example;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Bounded, TTL-based cache of search results keyed by the translated FT.SEARCH request.
+ * Entries remember which document keys they returned so that a removed document only drops
+ * the entries that contained it or may have counted it; see {@link KeyspaceInvalidator} for how
+ * writes are mapped to invalidations.
+ */
+public class QueryResultCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<String, Entry> entries;
+    private final Map<String, Set<String>> entriesByDocument = new HashMap<>();
+    private final Map<String, Set<String>> entriesByIndex = new HashMap<>();
+    // Entries holding only some of their matches, whose totals may count any document of the index
+    private final Map<String, Set<String>> partialEntriesByIndex = new HashMap<>();
+    private final Map<String, Long> generations = new HashMap<>();
+    private long clears;
+    private long hits;
+    private long misses;
+
+    public QueryResultCache(int maxEntries, Duration ttl) {
+        if (maxEntries <= 0) throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > QueryResultCache.this.maxEntries) {
+                    unlink(eldest.getKey(), eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    static String keyOf(String index, String query) {
+        return index + " " + query;
+    }
+
+    public synchronized TypedSearchResults get(String index, String query) {
+        String key = keyOf(index, query);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (System.nanoTime() - entry.createdNanos > ttlNanos) {
+            remove(key);
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.results;
+    }
+
+    /**
+     * Returns the invalidation generation of an index. Pass it to {@link #put} so that results read
+     * before a concurrent invalidation are not cached.
+     */
+    public synchronized long generation(String index) {
+        return clears + generations.getOrDefault(index, 0L);
+    }
+
+    public synchronized void put(String index, String query, TypedSearchResults results, long generation) {
+        if (generation != generation(index)) return;
+        String key = keyOf(index, query);
+        remove(key);
+        Entry entry = new Entry(index, results, System.nanoTime());
+        entries.put(key, entry);
+        entriesByIndex.computeIfAbsent(index, i -> new HashSet<>()).add(key);
+        if (partial(results)) partialEntriesByIndex.computeIfAbsent(index, i -> new HashSet<>()).add(key);
+        for (TypedRow row : results.rows()) {
+            entriesByDocument.computeIfAbsent(row.key(), k -> new HashSet<>()).add(key);
+        }
+    }
+
+    /**
+     * Drops every entry of the index that contained the given document key, and every entry that
+     * holds only part of its matches (a LIMIT page), since its total or its neighbouring pages may
+     * count the document. An entry holding all its matches without the document is unaffected.
+     */
+    public synchronized void invalidateDocument(String index, String documentKey) {
+        generations.merge(index, 1L, Long::sum);
+        Set<String> keys = entriesByDocument.remove(documentKey);
+        if (keys != null) {
+            for (String key : new ArrayList<>(keys)) {
+                remove(key);
+            }
+        }
+        Set<String> partialKeys = partialEntriesByIndex.get(index);
+        if (partialKeys == null) return;
+        for (String key : new ArrayList<>(partialKeys)) {
+            remove(key);
+        }
+    }
+
+    public synchronized void invalidateIndex(String index) {
+        generations.merge(index, 1L, Long::sum);
+        Set<String> keys = entriesByIndex.get(index);
+        if (keys == null) return;
+        for (String key : new ArrayList<>(keys)) {
+            remove(key);
+        }
+    }
+
+    public synchronized void clear() {
+        clears++;
+        entries.clear();
+        entriesByDocument.clear();
+        entriesByIndex.clear();
+        partialEntriesByIndex.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) unlink(key, entry);
+    }
+
+    private static boolean partial(TypedSearchResults results) {
+        return results.total() > results.rows().size();
+    }
+
+    private void unlink(String key, Entry entry) {
+        unlink(entriesByIndex, entry.index, key);
+        if (partial(entry.results)) unlink(partialEntriesByIndex, entry.index, key);
+        for (TypedRow row : entry.results.rows()) {
+            Set<String> documentKeys = entriesByDocument.get(row.key());
+            if (documentKeys != null) {
+                documentKeys.remove(key);
+                if (documentKeys.isEmpty()) entriesByDocument.remove(row.key());
+            }
+        }
+    }
+
+    private static void unlink(Map<String, Set<String>> keysByIndex, String index, String key) {
+        Set<String> keys = keysByIndex.get(index);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) keysByIndex.remove(index);
+        }
+    }
+
+    private record Entry(String index, TypedSearchResults results, long createdNanos) {
+    }
+}
@@ -0,0 +1,86 @@
+package org.example;
+
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.output.NestedMultiOutput;
+import io.lettuce.core.protocol.CommandArgs;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link IndexStatistics} read from Redis: document counts from {@code FT.INFO} and per-term counts
+ * from {@code FT.SEARCH ... LIMIT 0 0}. Both are cached and refreshed after {@code maxAge}, so only
+ * the first translation of a term after expiry pays a round trip.
+ */
+public class RedisIndexStatistics implements IndexStatistics {
+
+    private static final RowSchema NO_FIELDS = RowSchema.from(Map.of());
+
+    private final StatefulRedisConnection<String, ByteBuffer> connection;
+    private final long maxAgeNanos;
+    private final Map<String, Sample> documentCounts = new ConcurrentHashMap<>();
+    private final Map<String, Sample> termCounts = new ConcurrentHashMap<>();
+
+    public RedisIndexStatistics(StatefulRedisConnection<String, ByteBuffer> connection, Duration maxAge) {
+        this.connection = connection;
+        this.maxAgeNanos = maxAge.toNanos();
+    }
+
+    @Override
+    public long documentCount(String index) {
+        return cached(documentCounts, index, () -> readDocumentCount(index));
+    }
+
+    @Override
+    public long count(String index, String query) {
+        return cached(termCounts, QueryResultCache.keyOf(index, query), () -> readCount(index, query));
+    }
+
+    @Override
+    public long maxAgeNanos() {
+        return maxAgeNanos;
+    }
+
+    private long cached(Map<String, Sample> samples, String key, CountReader reader) {
+        long now = System.nanoTime();
+        Sample sample = samples.get(key);
+        if (sample != null && now - sample.readNanos < maxAgeNanos) return sample.value;
+        long value;
+        try {
+            value = reader.read();
+        } catch (RuntimeException e) {
+            // Statistics are advisory; an unanswerable fragment just falls back to heuristics
+            value = -1;
+        }
+        samples.put(key, new Sample(value, now));
+        return value;
+    }
+
+    private long readDocumentCount(String index) {
+        List<Object> info = connection.sync().dispatch(SearchCommand.FT_INFO,
+                new NestedMultiOutput<>(ByteBufferCodec.INSTANCE),
+                new CommandArgs<>(ByteBufferCodec.INSTANCE).add(index));
+        for (int i = 0; i + 1 < info.size(); i += 2) {
+            if ("num_docs".equals(AsciiBytes.asString(info.get(i)))) {
+                return (long) Double.parseDouble(AsciiBytes.asString(info.get(i + 1)));
+            }
+        }
+        return -1;
+    }
+
+    private long readCount(String index, String query) {
+        CommandArgs<String, ByteBuffer> args = new CommandArgs<>(ByteBufferCodec.INSTANCE)
+                .add(index).add(query).add("LIMIT").add(0).add(0);
+        return connection.sync().dispatch(SearchCommand.FT_SEARCH, new TypedRowOutput(ByteBufferCodec.INSTANCE, NO_FIELDS), args).total();
+    }
+
+    private interface CountReader {
+        long read();
+    }
+
+    private record Sample(long value, long readNanos) {
+    }
+}
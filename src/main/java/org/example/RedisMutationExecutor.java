@@ -0,0 +1,299 @@
+package org.example;
+
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.RedisNoScriptException;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.output.NestedMultiOutput;
+import io.lettuce.core.protocol.CommandArgs;
+import net.sf.jsqlparser.JSQLParserException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Runs CohQL DELETE and UPDATE statements as set-based bulk operations. Matching keys are
+ * streamed from an {@code FT.AGGREGATE ... WITHCURSOR} read, {@code batchSize} at a time, and
+ * each batch is applied as pipelined {@code DEL}s or update-script calls before the next one is
+ * read, so memory is bounded by the batch size rather than the number of matches. A {@code LIMIT}
+ * stops the read once that many documents have been applied.
+ * <p>
+ * An UPDATE re-indexes the documents it changes, and one that still matches can be read again by
+ * the open cursor. The update script only writes fields that differ, so a document read again is
+ * not changed (or counted as affected) twice, and the executor skips keys it updated in the last
+ * {@value #RECENT_UPDATE_BATCHES} batches so they are not counted as matched twice either.
+ * <p>
+ * Only key names are loaded, plus the fields needed for client-side LIKE filters. Updates go
+ * through a script that skips keys deleted since they were matched instead of recreating them.
+ * Uses the same {@link ByteBufferCodec}/RESP2 connection as {@link RedisQueryExecutor}.
+ */
+public class RedisMutationExecutor {
+
+    static final String KEY_FIELD = "__key";
+
+    // HSET only if the document still exists and a field differs; ARGV holds field/value pairs
+    static final String UPDATE_SCRIPT =
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end "
+                    + "for i = 1, #ARGV, 2 do "
+                    + "if redis.call('HGET', KEYS[1], ARGV[i]) ~= ARGV[i + 1] then "
+                    + "redis.call('HSET', KEYS[1], unpack(ARGV)) return 1 end "
+                    + "end return 0";
+
+    static final int RECENT_UPDATE_BATCHES = 16;
+
+    private final CohQLToRedisTranslator translator;
+    private final StatefulRedisConnection<String, ByteBuffer> connection;
+    private final QueryResultCache cache;
+    private final int batchSize;
+    private volatile String updateScriptSha;
+
+    public RedisMutationExecutor(CohQLToRedisTranslator translator,
+                                 StatefulRedisConnection<String, ByteBuffer> connection,
+                                 int batchSize) {
+        this(translator, connection, null, batchSize);
+    }
+
+    /**
+     * @param cache     optional result cache; the affected index is invalidated after each statement
+     * @param batchSize keys read per cursor page and applied per pipelined batch
+     */
+    public RedisMutationExecutor(CohQLToRedisTranslator translator,
+                                 StatefulRedisConnection<String, ByteBuffer> connection,
+                                 QueryResultCache cache,
+                                 int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        this.translator = translator;
+        this.connection = connection;
+        this.cache = cache;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Matched documents, documents actually deleted or updated, and pipelined batches sent.
+     */
+    public record MutationResult(long matched, long affected, int batches) {
+    }
+
+    public MutationResult execute(String cohql) throws JSQLParserException {
+        return execute(translator.translateMutation(cohql));
+    }
+
+    public MutationResult execute(MutationPlan plan) {
+        SearchRequest selection = plan.selection();
+        String index = selection.index();
+        long matched = 0;
+        long affected = 0;
+        int batches = 0;
+        Set<String> recentUpdates = plan.kind() == MutationPlan.Kind.UPDATE ? recentKeys() : Set.of();
+        Cursor cursor = null;
+        try {
+            cursor = aggregate(selection);
+            while (true) {
+                List<String> keys = new ArrayList<>(cursor.keys());
+                keys.removeAll(recentUpdates);
+                if (keys.size() > plan.limit() - matched) {
+                    keys = keys.subList(0, (int) (plan.limit() - matched));
+                }
+                matched += keys.size();
+                if (!keys.isEmpty()) {
+                    affected += apply(plan, keys);
+                    batches++;
+                    if (plan.kind() == MutationPlan.Kind.UPDATE) recentUpdates.addAll(keys);
+                }
+                if (cursor.id() == 0) break;
+                if (matched == plan.limit()) {
+                    release(index, cursor.id(), null);
+                    break;
+                }
+                cursor = read(index, cursor.id(), selection);
+            }
+        } catch (RuntimeException e) {
+            if (cursor != null && cursor.id() != 0) release(index, cursor.id(), e);
+            throw e;
+        } finally {
+            if (cache != null && batches > 0) cache.invalidateIndex(index);
+        }
+        return new MutationResult(matched, affected, batches);
+    }
+
+    /**
+     * Keys updated in the last few batches, oldest dropped first.
+     */
+    private Set<String> recentKeys() {
+        int capacity = (int) Math.min(Integer.MAX_VALUE, (long) batchSize * RECENT_UPDATE_BATCHES);
+        return Collections.newSetFromMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > capacity;
+            }
+        });
+    }
+
+    private long apply(MutationPlan plan, List<String> keys) {
+        List<String> unscripted = new ArrayList<>();
+        long affected = apply(plan, keys, unscripted);
+        if (!unscripted.isEmpty()) {
+            // The script cache was flushed (SCRIPT FLUSH, restart or failover) since the script was loaded
+            updateScriptSha = null;
+            affected += apply(plan, unscripted, null);
+        }
+        return affected;
+    }
+
+    /**
+     * @param unscripted collects keys whose update failed with NOSCRIPT, or null to fail on them too
+     */
+    private long apply(MutationPlan plan, List<String> keys, List<String> unscripted) {
+        RedisAsyncCommands<String, ByteBuffer> async = connection.async();
+        List<RedisFuture<Long>> futures = new ArrayList<>(keys.size());
+        if (plan.kind() == MutationPlan.Kind.DELETE) {
+            for (String key : keys) {
+                futures.add(async.del(key));
+            }
+        } else {
+            String sha = updateScriptSha();
+            ByteBuffer[] values = assignmentValues(plan.assignments());
+            for (String key : keys) {
+                futures.add(async.evalsha(sha, ScriptOutputType.INTEGER, new String[]{key}, values));
+            }
+        }
+        LettuceFutures.awaitAll(connection.getTimeout(), futures.toArray(new RedisFuture<?>[0]));
+
+        long affected = 0;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                affected += futures.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while applying " + plan.kind(), e);
+            } catch (ExecutionException e) {
+                if (unscripted != null && e.getCause() instanceof RedisNoScriptException) {
+                    unscripted.add(keys.get(i));
+                } else {
+                    throw new IllegalStateException(plan.kind() + " batch failed", e.getCause());
+                }
+            }
+        }
+        return affected;
+    }
+
+    private String updateScriptSha() {
+        String sha = updateScriptSha;
+        if (sha == null) {
+            sha = connection.sync().scriptLoad(UPDATE_SCRIPT);
+            updateScriptSha = sha;
+        }
+        return sha;
+    }
+
+    static ByteBuffer[] assignmentValues(Map<String, String> assignments) {
+        ByteBuffer[] values = new ByteBuffer[assignments.size() * 2];
+        int i = 0;
+        for (Map.Entry<String, String> assignment : assignments.entrySet()) {
+            values[i++] = utf8(assignment.getKey());
+            values[i++] = utf8(assignment.getValue());
+        }
+        return values;
+    }
+
+    private static ByteBuffer utf8(String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    record Cursor(long id, List<String> keys) {
+    }
+
+    private Cursor aggregate(SearchRequest selection) {
+        List<String> fields = new ArrayList<>();
+        fields.add(KEY_FIELD);
+        for (SearchRequest.ClientFilter filter : selection.clientFilters()) {
+            if (!fields.contains(filter.field())) fields.add(filter.field());
+        }
+        CommandArgs<String, ByteBuffer> args = new CommandArgs<>(ByteBufferCodec.INSTANCE)
+                .add(selection.index())
+                .add(selection.query())
+                .add("LOAD")
+                .add(fields.size());
+        for (String field : fields) {
+            args.add("@" + field);
+        }
+        args.add("WITHCURSOR").add("COUNT").add(batchSize);
+        return cursor(connection.sync().dispatch(SearchCommand.FT_AGGREGATE, new NestedMultiOutput<>(ByteBufferCodec.INSTANCE), args), selection);
+    }
+
+    private Cursor read(String index, long cursorId, SearchRequest selection) {
+        CommandArgs<String, ByteBuffer> args = new CommandArgs<>(ByteBufferCodec.INSTANCE)
+                .add("READ")
+                .add(index)
+                .add(cursorId)
+                .add("COUNT")
+                .add(batchSize);
+        return cursor(connection.sync().dispatch(SearchCommand.FT_CURSOR, new NestedMultiOutput<>(ByteBufferCodec.INSTANCE), args), selection);
+    }
+
+    /**
+     * @param failure the exception being thrown, if any, which keeps a release failure as suppressed
+     */
+    private void release(String index, long cursorId, RuntimeException failure) {
+        CommandArgs<String, ByteBuffer> args = new CommandArgs<>(ByteBufferCodec.INSTANCE)
+                .add("DEL")
+                .add(index)
+                .add(cursorId);
+        try {
+            connection.sync().dispatch(SearchCommand.FT_CURSOR, new NestedMultiOutput<>(ByteBufferCodec.INSTANCE), args);
+        } catch (RuntimeException e) {
+            // The server drops idle cursors on its own
+            if (failure != null) failure.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Reads {@code [[total, row...], cursorId]}, where each row is a flat field/value list.
+     */
+    static Cursor cursor(List<Object> reply, SearchRequest selection) {
+        List<?> page = (List<?>) reply.get(0);
+        long cursorId = (Long) reply.get(1);
+        List<String> keys = new ArrayList<>(Math.max(0, page.size() - 1));
+        for (int i = 1; i < page.size(); i++) {
+            Map<String, String> row = row((List<?>) page.get(i));
+            String key = row.get(KEY_FIELD);
+            if (key != null && matches(selection.clientFilters(), row)) keys.add(key);
+        }
+        return new Cursor(cursorId, keys);
+    }
+
+    private static Map<String, String> row(List<?> values) {
+        Map<String, String> row = new HashMap<>();
+        for (int i = 0; i + 1 < values.size(); i += 2) {
+            row.put(text(values.get(i)), text(values.get(i + 1)));
+        }
+        return row;
+    }
+
+    private static String text(Object value) {
+        if (value instanceof ByteBuffer buffer) {
+            return StandardCharsets.UTF_8.decode(buffer.duplicate()).toString();
+        }
+        return value == null ? null : value.toString();
+    }
+
+    private static boolean matches(List<SearchRequest.ClientFilter> filters, Map<String, String> row) {
+        for (SearchRequest.ClientFilter filter : filters) {
+            String value = row.get(filter.field());
+            if (value == null || !filter.pattern().matcher(value).matches()) return false;
+        }
+        return true;
+    }
+}
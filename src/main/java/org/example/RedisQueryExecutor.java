@@ -0,0 +1,311 @@
+package org.example;
+
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.output.NestedMultiOutput;
+import io.lettuce.core.protocol.CommandArgs;
+import net.sf.jsqlparser.JSQLParserException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Translates CohQL and runs the resulting FT.SEARCH, decoding the reply into {@link TypedRow}s
+ * using the translator's field types. The connection must use {@link ByteBufferCodec} and RESP2
+ * ({@code ClientOptions.builder().protocolVersion(ProtocolVersion.RESP2)}), since RESP3 returns
+ * FT.SEARCH results as maps.
+ */
+public class RedisQueryExecutor {
+
+    // Rows read per round trip while filling a page of a client-filtered search
+    static final int CLIENT_FILTER_BATCH = 100;
+
+    private final CohQLToRedisTranslator translator;
+    private final SearchTransport transport;
+    private final RowSchema schema;
+    private final String defaultIndex;
+    private final QueryResultCache cache;
+    private final QueryAdmission admission;
+    private final SingleFlight<String, TypedSearchResults> translations;
+    private final SingleFlight<String, TypedSearchResults> searches;
+
+    public RedisQueryExecutor(CohQLToRedisTranslator translator,
+                              StatefulRedisConnection<String, ByteBuffer> connection,
+                              String defaultIndex) {
+        this(translator, connection, defaultIndex, null, null, null);
+    }
+
+    /**
+     * @param cache            optional result cache; repeated requests are answered from it until invalidated
+     * @param maxCoalescedWait if non-null, identical concurrent requests share one translation and one
+     *                         FT.SEARCH, and callers waiting on another's request give up after this long
+     * @param admission        optional cost-based admission control; needs a translator with a {@link CostEstimator}
+     */
+    public RedisQueryExecutor(CohQLToRedisTranslator translator,
+                              StatefulRedisConnection<String, ByteBuffer> connection,
+                              String defaultIndex,
+                              QueryResultCache cache,
+                              Duration maxCoalescedWait,
+                              QueryAdmission admission) {
+        this(translator, new ConnectionPool(List.of(connection)), defaultIndex, cache, maxCoalescedWait, admission);
+    }
+
+    public RedisQueryExecutor(CohQLToRedisTranslator translator, SearchTransport transport, String defaultIndex) {
+        this(translator, transport, defaultIndex, null, null, null);
+    }
+
+    /**
+     * Runs searches through {@code transport}: a {@link ConnectionPool} of multiplexed connections,
+     * or a {@link ClusterSearchTransport} that fans out to every shard and merges the results.
+     */
+    public RedisQueryExecutor(CohQLToRedisTranslator translator,
+                              SearchTransport transport,
+                              String defaultIndex,
+                              QueryResultCache cache,
+                              Duration maxCoalescedWait,
+                              QueryAdmission admission) {
+        this.translator = translator;
+        this.transport = transport;
+        this.schema = RowSchema.from(translator.getFieldTypes());
+        this.defaultIndex = defaultIndex;
+        this.cache = cache;
+        this.admission = admission;
+        this.translations = maxCoalescedWait == null ? null : new SingleFlight<>(maxCoalescedWait);
+        this.searches = maxCoalescedWait == null ? null : new SingleFlight<>(maxCoalescedWait);
+    }
+
+    public TypedSearchResults execute(String cohql) throws JSQLParserException {
+        if (translations == null) {
+            return search(translator.translateRequest(cohql));
+        }
+        try {
+            return translations.execute(cohql, () -> search(translator.translateRequest(cohql)));
+        } catch (JSQLParserException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Runs a query with bound parameters, e.g. the query vector of {@code knn(embedding, :vec, 10)}.
+     * A {@code float[]} is sent as a little-endian FLOAT32 blob, a {@link ByteBuffer} as-is and
+     * anything else as text. Parameterized searches bypass the result cache and coalescing.
+     */
+    public TypedSearchResults execute(String cohql, Map<String, ?> params) throws JSQLParserException {
+        return search(translator.translateRequest(cohql), params);
+    }
+
+    /**
+     * Runs a query with {@code defaults} for the FT.SEARCH options its hint comment leaves unset,
+     * e.g. a tenant's TIMEOUT from {@link TenantQueryOptions}. Identical searches are still
+     * coalesced, but translations are not.
+     */
+    public TypedSearchResults execute(String cohql, QueryOptions defaults) throws JSQLParserException {
+        return search(translator.translateRequest(cohql, defaults));
+    }
+
+    public TypedSearchResults execute(String cohql, QueryOptions defaults, Map<String, ?> params) throws JSQLParserException {
+        return search(translator.translateRequest(cohql, defaults), params);
+    }
+
+    public TypedSearchResults search(SearchRequest request, Map<String, ?> params) {
+        if (request.parameters().isEmpty()) {
+            return search(request);
+        }
+        return run(indexOf(request), request, params);
+    }
+
+    public TypedSearchResults search(SearchRequest request) {
+        String index = indexOf(request);
+        if (searches == null) {
+            return run(index, request, Map.of());
+        }
+        try {
+            return searches.execute(QueryResultCache.keyOf(index, cacheQuery(request)), () -> run(index, request, Map.of()));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private TypedSearchResults run(String index, SearchRequest request, Map<String, ?> params) {
+        if (!request.clientFilters().isEmpty()) {
+            return searchFiltered(index, request, params);
+        }
+        return params.isEmpty() ? searchCached(index, request) : dispatch(index, request, params);
+    }
+
+    /**
+     * Runs a search whose LIKE is finished on the client. Its LIMIT applies to the rows that pass
+     * the client filters, so Redis is read from the first match in batches until the page is
+     * filled or the matches run out. The total is the Redis total less the rows dropped so far,
+     * which is exact once every match has been read.
+     */
+    private TypedSearchResults searchFiltered(String index, SearchRequest request, Map<String, ?> params) {
+        SearchPage page = SearchPage.of(request.arguments());
+        long batch = Math.max(CLIENT_FILTER_BATCH, page.offset() + page.count());
+        long skip = page.offset();
+        long read = 0;
+        long dropped = 0;
+        long total;
+        List<TypedRow> rows = new ArrayList<>();
+        while (true) {
+            SearchRequest chunk = new SearchRequest(request.index(), request.query(), request.estimatedCost(),
+                    request.clientFilters(), SearchPage.withLimit(request.arguments(), read, batch), request.parameters());
+            TypedSearchResults results = params.isEmpty() ? searchCached(index, chunk) : dispatch(index, chunk, params);
+            TypedSearchResults filtered = applyClientFilters(chunk, results);
+            total = results.total();
+            dropped += results.rows().size() - filtered.rows().size();
+            read += results.rows().size();
+            for (TypedRow row : filtered.rows()) {
+                if (skip > 0) skip--;
+                else if (rows.size() < page.count()) rows.add(row);
+            }
+            if (rows.size() >= page.count() || results.rows().isEmpty() || read >= total) break;
+        }
+        return new TypedSearchResults(total - dropped, Collections.unmodifiableList(rows));
+    }
+
+    /**
+     * Drops rows that Redis matched only through a narrowed LIKE. The total is reduced by the
+     * rows dropped from this page, which is exact when the page holds every match.
+     */
+    static TypedSearchResults applyClientFilters(SearchRequest request, TypedSearchResults results) {
+        if (request.clientFilters().isEmpty()) return results;
+        List<TypedRow> rows = new ArrayList<>(results.rows().size());
+        for (TypedRow row : results.rows()) {
+            if (matches(request.clientFilters(), row)) rows.add(row);
+        }
+        long dropped = results.rows().size() - rows.size();
+        return new TypedSearchResults(results.total() - dropped, Collections.unmodifiableList(rows));
+    }
+
+    private static boolean matches(List<SearchRequest.ClientFilter> filters, TypedRow row) {
+        for (SearchRequest.ClientFilter filter : filters) {
+            String value = row.getString(filter.field());
+            if (value == null || !filter.pattern().matcher(value).matches()) return false;
+        }
+        return true;
+    }
+
+    private TypedSearchResults searchCached(String index, SearchRequest request) {
+        if (cache == null) {
+            return dispatch(index, request, Map.of());
+        }
+
+        TypedSearchResults cached = cache.get(index, cacheQuery(request));
+        if (cached != null) return cached;
+
+        long generation = cache.generation(index);
+        TypedSearchResults results = dispatch(index, request, Map.of());
+        cache.put(index, cacheQuery(request), results, generation);
+        return results;
+    }
+
+    private TypedSearchResults dispatch(String index, SearchRequest request, Map<String, ?> params) {
+        if (admission == null) {
+            return send(index, request, params);
+        }
+        QueryAdmission.Permit permit = admission.admit(request);
+        try {
+            return send(index, request, params);
+        } finally {
+            permit.close();
+        }
+    }
+
+    private TypedSearchResults send(String index, SearchRequest request, Map<String, ?> params) {
+        return transport.search(index, request, params, schema);
+    }
+
+    /**
+     * FT.SEARCH arguments for {@code request}, with {@code arguments} in place of its own options.
+     */
+    static CommandArgs<String, ByteBuffer> searchArgs(String index, SearchRequest request, Map<String, ?> params,
+                                                     List<String> arguments) {
+        CommandArgs<String, ByteBuffer> args = new CommandArgs<>(ByteBufferCodec.INSTANCE)
+                .add(index)
+                .add(request.query());
+        addParams(args, request, params);
+        for (String argument : arguments) {
+            args.add(argument);
+        }
+        return args;
+    }
+
+    private static void addParams(CommandArgs<String, ByteBuffer> args, SearchRequest request, Map<String, ?> params) {
+        if (request.parameters().isEmpty()) return;
+        args.add("PARAMS").add(request.parameters().size() * 2L);
+        for (String name : request.parameters()) {
+            Object value = params.get(name);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing query parameter: " + name);
+            }
+            args.add(name).addValue(encodeParameter(value));
+        }
+    }
+
+    static ByteBuffer encodeParameter(Object value) {
+        if (value instanceof float[] vector) {
+            ByteBuffer blob = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            blob.asFloatBuffer().put(vector);
+            return blob;
+        } else if (value instanceof ByteBuffer buffer) {
+            return buffer.duplicate();
+        }
+        return ByteBuffer.wrap(value.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Explains how a query is translated and, if {@code profile} is set, runs it through
+     * {@code FT.PROFILE} and attaches the per-iterator timings. Bypasses the result cache.
+     */
+    public QueryExplanation explain(String cohql, boolean profile) throws JSQLParserException {
+        return explain(cohql, profile, Map.of());
+    }
+
+    /**
+     * As {@link #explain(String, boolean)}, binding {@code :name} parameters for the profiled run.
+     *
+     * @throws IllegalArgumentException when profiling a query whose parameters are not all bound
+     */
+    public QueryExplanation explain(String cohql, boolean profile, Map<String, ?> params) throws JSQLParserException {
+        QueryExplanation explanation = translator.explain(cohql);
+        if (!profile) return explanation;
+
+        SearchRequest request = explanation.request();
+        CommandArgs<String, ByteBuffer> args = new CommandArgs<>(ByteBufferCodec.INSTANCE)
+                .add(indexOf(request))
+                .add("SEARCH")
+                .add("QUERY")
+                .add(request.query());
+        addParams(args, request, params);
+        for (String argument : request.arguments()) {
+            args.add(argument);
+        }
+        List<Object> reply = transport.connection().sync().dispatch(SearchCommand.FT_PROFILE, new NestedMultiOutput<>(ByteBufferCodec.INSTANCE), args);
+        return explanation.withProfile(ProfileReport.parse((List<?>) reply.get(1)));
+    }
+
+    /**
+     * The query plus its SORTBY/LIMIT options, which change the results as much as the query does.
+     */
+    private static String cacheQuery(SearchRequest request) {
+        return request.arguments().isEmpty() ? request.query() : request.query() + " " + String.join(" ", request.arguments());
+    }
+
+    String indexOf(SearchRequest request) {
+        String index = request.index() != null ? request.index() : defaultIndex;
+        if (index == null) {
+            throw new IllegalArgumentException("No index for query: " + request.query());
+        }
+        return index;
+    }
+}
@@ -0,0 +1,138 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Column layout for {@link TypedRow}, derived from the translator's field types. NUMERIC, DATE and
+ * TIMESTAMP fields get a primitive slot, TEXT and TAG fields a String slot; TAG values are interned
+ * per schema. VECTOR blobs are not decoded; a VECTOR field instead contributes the numeric
+ * {@code __<field>_score} column that KNN queries return.
+ */
+public final class RowSchema {
+
+    static final int NOT_FOUND = -1;
+
+    private final String[] names;
+    private final byte[][] nameBytes;
+    private final int[] nameHashes;
+    private final CohQLToRedisTranslator.FieldType[] types;
+    private final int[] slots;
+    private final int[] lookup;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private final TagInterner tags = new TagInterner(4096);
+    private final int numericCount;
+    private final int stringCount;
+
+    public static RowSchema from(Map<String, String> fieldTypes) {
+        Map<String, String> columns = new LinkedHashMap<>();
+        for (Map.Entry<String, String> field : fieldTypes.entrySet()) {
+            if (CohQLToRedisTranslator.FieldType.VECTOR.name().equals(field.getValue())) {
+                columns.put(scoreColumn(field.getKey()), CohQLToRedisTranslator.FieldType.NUMERIC.name());
+            } else {
+                columns.put(field.getKey(), field.getValue());
+            }
+        }
+        return new RowSchema(columns);
+    }
+
+    /**
+     * The distance field FT.SEARCH adds for {@code KNN ... @field}.
+     */
+    public static String scoreColumn(String vectorField) {
+        return "__" + vectorField + "_score";
+    }
+
+    private RowSchema(Map<String, String> fieldTypes) {
+        int size = fieldTypes.size();
+        this.names = new String[size];
+        this.nameBytes = new byte[size][];
+        this.nameHashes = new int[size];
+        this.types = new CohQLToRedisTranslator.FieldType[size];
+        this.slots = new int[size];
+
+        int numeric = 0;
+        int string = 0;
+        int column = 0;
+        for (Map.Entry<String, String> field : fieldTypes.entrySet()) {
+            names[column] = field.getKey();
+            nameBytes[column] = field.getKey().getBytes(StandardCharsets.UTF_8);
+            nameHashes[column] = AsciiBytes.hash(nameBytes[column]);
+            types[column] = columnType(field.getValue());
+            slots[column] = types[column] == CohQLToRedisTranslator.FieldType.NUMERIC ? numeric++ : string++;
+            columns.put(field.getKey(), column);
+            column++;
+        }
+        this.numericCount = numeric;
+        this.stringCount = string;
+
+        // Open-addressed index over the name bytes, so reply field names resolve without decoding
+        this.lookup = new int[Integer.highestOneBit(Math.max(8, size * 2 - 1)) << 1];
+        Arrays.fill(lookup, NOT_FOUND);
+        int mask = lookup.length - 1;
+        for (int c = 0; c < size; c++) {
+            int index = nameHashes[c] & mask;
+            while (lookup[index] != NOT_FOUND) index = (index + 1) & mask;
+            lookup[index] = c;
+        }
+    }
+
+    private static CohQLToRedisTranslator.FieldType columnType(String fieldType) {
+        if (fieldType == null) return CohQLToRedisTranslator.FieldType.TEXT;
+        return switch (fieldType) {
+            // DATE and TIMESTAMP are stored as epoch milliseconds
+            case "NUMERIC", "DATE", "TIMESTAMP" -> CohQLToRedisTranslator.FieldType.NUMERIC;
+            case "TAG" -> CohQLToRedisTranslator.FieldType.TAG;
+            default -> CohQLToRedisTranslator.FieldType.TEXT;
+        };
+    }
+
+    int column(ByteBuffer name) {
+        int hash = AsciiBytes.hash(name);
+        int mask = lookup.length - 1;
+        for (int index = hash & mask; lookup[index] != NOT_FOUND; index = (index + 1) & mask) {
+            int c = lookup[index];
+            if (nameHashes[c] == hash && AsciiBytes.equals(nameBytes[c], name)) return c;
+        }
+        return NOT_FOUND;
+    }
+
+    int column(String name) {
+        Integer column = columns.get(name);
+        if (column == null) throw new IllegalArgumentException("Unknown field: " + name);
+        return column;
+    }
+
+    boolean contains(String name) {
+        return columns.containsKey(name);
+    }
+
+    CohQLToRedisTranslator.FieldType type(int column) {
+        return types[column];
+    }
+
+    int slot(int column) {
+        return slots[column];
+    }
+
+    String name(int column) {
+        return names[column];
+    }
+
+    TypedRow newRow(String key) {
+        return new TypedRow(this, key, numericCount, stringCount);
+    }
+
+    void decode(TypedRow row, int column, ByteBuffer value) {
+        if (value == null) return;
+        switch (types[column]) {
+            case NUMERIC -> AsciiBytes.decodeNumber(value, row, slots[column]);
+            case TAG -> row.putString(slots[column], tags.intern(value));
+            default -> row.putString(slots[column], StandardCharsets.UTF_8.decode(value.duplicate()).toString());
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.example;
+
+import io.lettuce.core.protocol.ProtocolKeyword;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * RediSearch commands dispatched through plain lettuce-core connections.
+ */
+enum SearchCommand implements ProtocolKeyword {
+    FT_SEARCH("FT.SEARCH"),
+    FT_INFO("FT.INFO"),
+    FT_PROFILE("FT.PROFILE"),
+    FT_AGGREGATE("FT.AGGREGATE"),
+    FT_CURSOR("FT.CURSOR"),
+    FT_CREATE("FT.CREATE"),
+    FT_ALTER("FT.ALTER");
+
+    private final byte[] bytes;
+
+    SearchCommand(String command) {
+        this.bytes = command.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public byte[] getBytes() {
+        return bytes;
+    }
+}
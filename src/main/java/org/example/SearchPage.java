@@ -0,0 +1,51 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The SORTBY and LIMIT options of a translated search. Without LIMIT, FT.SEARCH returns the
+ * first {@value #DEFAULT_LIMIT} matches.
+ */
+record SearchPage(String sortBy, boolean descending, long offset, long count) {
+
+    static final int DEFAULT_LIMIT = 10;
+
+    static SearchPage of(List<String> arguments) {
+        String sortBy = null;
+        boolean descending = false;
+        long offset = 0;
+        long count = DEFAULT_LIMIT;
+        for (int i = 0; i < arguments.size(); i++) {
+            String argument = arguments.get(i);
+            if (argument.equalsIgnoreCase("SORTBY") && i + 1 < arguments.size()) {
+                sortBy = arguments.get(i + 1);
+                if (i + 2 < arguments.size() && arguments.get(i + 2).equalsIgnoreCase("DESC")) descending = true;
+            } else if (argument.equalsIgnoreCase("LIMIT") && i + 2 < arguments.size()) {
+                offset = Long.parseLong(arguments.get(i + 1));
+                count = Long.parseLong(arguments.get(i + 2));
+                i += 2;
+            }
+        }
+        return new SearchPage(sortBy, descending, offset, count);
+    }
+
+    /**
+     * {@code arguments} with their LIMIT replaced by (or extended with) {@code LIMIT offset count}.
+     */
+    static List<String> withLimit(List<String> arguments, long offset, long count) {
+        List<String> limited = new ArrayList<>(arguments.size() + 3);
+        boolean replaced = false;
+        for (int i = 0; i < arguments.size(); i++) {
+            if (arguments.get(i).equalsIgnoreCase("LIMIT") && i + 2 < arguments.size()) {
+                limited.addAll(List.of("LIMIT", Long.toString(offset), Long.toString(count)));
+                replaced = true;
+                i += 2;
+            } else {
+                limited.add(arguments.get(i));
+            }
+        }
+        if (!replaced) limited.addAll(List.of("LIMIT", Long.toString(offset), Long.toString(count)));
+        return limited;
+    }
+}
@@ -0,0 +1,46 @@
+package org.example;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * A translated search: the target index and the RediSearch query string.
+ * The index is null when only a condition (no SELECT ... FROM) was translated.
+ * The estimated cost is NaN unless the translator has a {@link CostEstimator}.
+ * Client filters finish LIKE patterns that Redis only narrows (see {@link LikePlanner}).
+ * Arguments are extra FT.SEARCH options (e.g. KNN's LIMIT and DIALECT); parameters name the
+ * values the caller must bind through PARAMS, in query order.
+ */
+public record SearchRequest(String index, String query, double estimatedCost, List<ClientFilter> clientFilters,
+                            List<String> arguments, List<String> parameters) {
+
+    public SearchRequest(String index, String query) {
+        this(index, query, Double.NaN);
+    }
+
+    public SearchRequest(String index, String query, double estimatedCost) {
+        this(index, query, estimatedCost, List.of());
+    }
+
+    public SearchRequest(String index, String query, double estimatedCost, List<ClientFilter> clientFilters) {
+        this(index, query, estimatedCost, clientFilters, List.of(), List.of());
+    }
+
+    public SearchRequest {
+        clientFilters = List.copyOf(clientFilters);
+        arguments = List.copyOf(arguments);
+        parameters = List.copyOf(parameters);
+    }
+
+    /**
+     * A field value that must fully match {@code pattern}; rows with a null value are dropped.
+     */
+    public record ClientFilter(String field, Pattern pattern) {
+    }
+
+    @Override
+    public String toString() {
+        String search = index == null ? query : "FT.SEARCH " + index + " " + query;
+        return arguments.isEmpty() ? search : search + " " + String.join(" ", arguments);
+    }
+}
@@ -0,0 +1,24 @@
+package org.example;
+
+import io.lettuce.core.api.StatefulRedisConnection;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Where {@link RedisQueryExecutor} sends its FT.SEARCH commands: a {@link ConnectionPool} for a
+ * single Redis (or a cluster coordinator), or a {@link ClusterSearchTransport} fanning out to
+ * every shard.
+ */
+public interface SearchTransport {
+
+    /**
+     * Runs {@code request} against {@code index}, binding {@code params}, and decodes rows with {@code schema}.
+     */
+    TypedSearchResults search(String index, SearchRequest request, Map<String, ?> params, RowSchema schema);
+
+    /**
+     * A connection for commands that are not fanned out, such as FT.PROFILE.
+     */
+    StatefulRedisConnection<String, ByteBuffer> connection();
+}
@@ -0,0 +1,57 @@
+package org.example;
+
+import io.lettuce.core.RedisCommandTimeoutException;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+
+/**
+ * Coalesces concurrent calls with the same key: the first caller runs the work, everyone arriving
+ * while it is in flight waits for and shares its result or exception. Followers wait at most
+ * {@code maxWait}; the leader is never cut short.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final long maxWaitNanos;
+
+    public SingleFlight(Duration maxWait) {
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    public V execute(K key, Callable<V> call) throws Exception {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return await(key, existing);
+        }
+
+        try {
+            V result = call.call();
+            inFlight.remove(key, flight);
+            flight.complete(result);
+            return result;
+        } catch (Throwable e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private V await(K key, CompletableFuture<V> flight) throws Exception {
+        try {
+            return flight.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception exception) throw exception;
+            if (cause instanceof Error error) throw error;
+            throw e;
+        } catch (TimeoutException e) {
+            throw new RedisCommandTimeoutException("Timed out waiting for in-flight request: " + key);
+        }
+    }
+}
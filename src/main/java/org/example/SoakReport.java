@@ -0,0 +1,136 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a {@link SoakRunner} run, written as JSON for capacity-planning tooling. Latencies
+ * are in nanoseconds; translation, the cost estimator's statistics reads made while translating
+ * (empty without an estimator) and execution are measured separately.
+ */
+public record SoakReport(Instant startedAt, SoakRunner.Config config, Load load, double elapsedSeconds,
+                         Stats overall, List<Stats> templates) {
+
+    public SoakReport {
+        templates = List.copyOf(templates);
+    }
+
+    /**
+     * Dataset load: documents written, batches and wall time.
+     */
+    public record Load(long documents, int batches, double seconds) {
+
+        public double documentsPerSecond() {
+            return seconds == 0 ? 0 : documents / seconds;
+        }
+    }
+
+    public record Latency(long count, double mean, long p50, long p99, long p999, long max) {
+
+        static Latency of(LatencyHistogram histogram) {
+            return new Latency(histogram.count(), histogram.mean(), histogram.percentile(0.5),
+                    histogram.percentile(0.99), histogram.percentile(0.999), histogram.max());
+        }
+    }
+
+    /**
+     * @param errorTypes failed queries by exception class
+     */
+    public record Stats(String name, long queries, long errors, Map<String, Long> errorTypes, double queriesPerSecond,
+                        Latency translation, Latency statistics, Latency execution) {
+
+        public Stats {
+            errorTypes = Map.copyOf(errorTypes);
+        }
+    }
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{");
+        field(json, "startedAt", startedAt.toString()).append(',');
+        json.append("\"config\":{");
+        field(json, "workers", config.workers()).append(',');
+        field(json, "virtualThreads", config.virtualThreads()).append(',');
+        field(json, "warmupSeconds", config.warmup().toMillis() / 1000.0).append(',');
+        field(json, "durationSeconds", config.duration().toMillis() / 1000.0).append(',');
+        field(json, "seed", config.seed()).append("},");
+        if (load != null) {
+            json.append("\"load\":{");
+            field(json, "documents", load.documents()).append(',');
+            field(json, "batches", load.batches()).append(',');
+            field(json, "seconds", load.seconds()).append(',');
+            field(json, "documentsPerSecond", load.documentsPerSecond()).append("},");
+        }
+        field(json, "elapsedSeconds", elapsedSeconds).append(',');
+        json.append("\"overall\":");
+        stats(json, overall).append(",\"templates\":[");
+        for (int i = 0; i < templates.size(); i++) {
+            if (i > 0) json.append(',');
+            stats(json, templates.get(i));
+        }
+        return json.append("]}").toString();
+    }
+
+    public void write(Path file) throws IOException {
+        Files.writeString(file, toJson(), StandardCharsets.UTF_8);
+    }
+
+    private static StringBuilder stats(StringBuilder json, Stats stats) {
+        json.append('{');
+        field(json, "name", stats.name()).append(',');
+        field(json, "queries", stats.queries()).append(',');
+        field(json, "errors", stats.errors()).append(',');
+        json.append("\"errorTypes\":{");
+        int i = 0;
+        for (Map.Entry<String, Long> error : stats.errorTypes().entrySet()) {
+            if (i++ > 0) json.append(',');
+            field(json, error.getKey(), error.getValue());
+        }
+        json.append("},");
+        field(json, "queriesPerSecond", stats.queriesPerSecond()).append(',');
+        json.append("\"translationNanos\":");
+        latency(json, stats.translation()).append(",\"statisticsNanos\":");
+        latency(json, stats.statistics()).append(",\"executionNanos\":");
+        return latency(json, stats.execution()).append('}');
+    }
+
+    private static StringBuilder latency(StringBuilder json, Latency latency) {
+        json.append('{');
+        field(json, "count", latency.count()).append(',');
+        field(json, "mean", latency.mean()).append(',');
+        field(json, "p50", latency.p50()).append(',');
+        field(json, "p99", latency.p99()).append(',');
+        field(json, "p999", latency.p999()).append(',');
+        return field(json, "max", latency.max()).append('}');
+    }
+
+    private static StringBuilder field(StringBuilder json, String name, Object value) {
+        string(json, name).append(':');
+        if (value instanceof String text) return string(json, text);
+        if (value instanceof Double number && !Double.isFinite(number)) return json.append("null");
+        return json.append(value);
+    }
+
+    private static StringBuilder string(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) json.append(String.format("\\u%04x", (int) c));
+                    else json.append(c);
+                }
+            }
+        }
+        return json.append('"');
+    }
+}
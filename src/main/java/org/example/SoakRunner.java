@@ -0,0 +1,173 @@
+package org.example;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Soak and load test driver. Loads a synthetic dataset from a {@link WorkloadGenerator} and then
+ * replays a weighted mix of CohQL templates from many workers (platform or virtual threads),
+ * timing translation, the cost estimator's statistics reads and execution separately per template.
+ * <p>
+ * Each query instantiates its template with fresh random literals, so most translations miss the
+ * translator's plan cache, as varied production traffic would. The executor should be built
+ * without a result cache for the same reason.
+ */
+public class SoakRunner {
+
+    private final CohQLToRedisTranslator translator;
+    private final RedisQueryExecutor executor;
+    private final WorkloadGenerator generator;
+    private final List<Template> templates;
+    private final int totalWeight;
+
+    /**
+     * A CohQL template with {@code {field}} placeholders (see {@link WorkloadGenerator#instantiate}).
+     *
+     * @param parameterFields the field each bound parameter is drawn from, e.g. {@code vec -> embedding}
+     */
+    public record Template(String name, String cohql, int weight, Map<String, String> parameterFields) {
+
+        public Template(String name, String cohql, int weight) {
+            this(name, cohql, weight, Map.of());
+        }
+
+        public Template {
+            if (weight < 1) throw new IllegalArgumentException("weight must be positive: " + name);
+            parameterFields = Map.copyOf(parameterFields);
+        }
+    }
+
+    /**
+     * @param warmup measured after the warmup, which is not part of {@code duration}
+     */
+    public record Config(int workers, boolean virtualThreads, Duration warmup, Duration duration, long seed) {
+    }
+
+    public SoakRunner(CohQLToRedisTranslator translator, RedisQueryExecutor executor, WorkloadGenerator generator,
+                      List<Template> templates) {
+        if (templates.isEmpty()) {
+            throw new IllegalArgumentException("At least one template is required");
+        }
+        this.translator = translator;
+        this.executor = executor;
+        this.generator = generator;
+        this.templates = List.copyOf(templates);
+        this.totalWeight = templates.stream().mapToInt(Template::weight).sum();
+    }
+
+    public SoakReport.Load load(BulkLoader loader, String keyPrefix, long documents) {
+        long start = System.nanoTime();
+        BulkLoader.LoadResult result = loader.load(generator.documents(keyPrefix, documents));
+        return new SoakReport.Load(result.documents(), result.batches(), (System.nanoTime() - start) / 1e9);
+    }
+
+    private static final class Stats {
+        final LatencyHistogram translation = new LatencyHistogram();
+        final LatencyHistogram statistics = new LatencyHistogram();
+        final LatencyHistogram execution = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+        final Map<String, LongAdder> errorTypes = new ConcurrentHashMap<>();
+
+        void error(Exception e) {
+            errors.increment();
+            errorTypes.computeIfAbsent(e.getClass().getSimpleName(), type -> new LongAdder()).increment();
+        }
+
+        SoakReport.Stats report(String name, double seconds) {
+            Map<String, Long> types = new TreeMap<>();
+            errorTypes.forEach((type, count) -> types.put(type, count.sum()));
+            long queries = execution.count() + errors.sum();
+            return new SoakReport.Stats(name, queries, errors.sum(), types, seconds == 0 ? 0 : queries / seconds,
+                    SoakReport.Latency.of(translation), SoakReport.Latency.of(statistics), SoakReport.Latency.of(execution));
+        }
+    }
+
+    public SoakReport run(Config config) throws InterruptedException {
+        return run(config, null);
+    }
+
+    /**
+     * @param load the dataset load to include in the report, if any
+     */
+    public SoakReport run(Config config, SoakReport.Load load) throws InterruptedException {
+        Stats overall = new Stats();
+        Map<Template, Stats> stats = new LinkedHashMap<>();
+        templates.forEach(template -> stats.put(template, new Stats()));
+
+        Instant startedAt = Instant.now();
+        long measureFrom = System.nanoTime() + config.warmup().toNanos();
+        long end = measureFrom + config.duration().toNanos();
+        ExecutorService workers = config.virtualThreads()
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(config.workers());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < config.workers(); w++) {
+                SplittableRandom random = new SplittableRandom(config.seed() + w);
+                futures.add(workers.submit(() -> work(random, measureFrom, end, overall, stats)));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Soak worker failed", e.getCause());
+                }
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+
+        double seconds = (System.nanoTime() - measureFrom) / 1e9;
+        List<SoakReport.Stats> perTemplate = new ArrayList<>();
+        stats.forEach((template, s) -> perTemplate.add(s.report(template.name(), seconds)));
+        return new SoakReport(startedAt, config, load, seconds, overall.report("overall", seconds), perTemplate);
+    }
+
+    private void work(SplittableRandom random, long measureFrom, long end, Stats overall, Map<Template, Stats> stats) {
+        CostEstimator estimator = translator.getCostEstimator();
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            Template template = pick(random);
+            String cohql = generator.instantiate(template.cohql(), random);
+            boolean measured = now >= measureFrom;
+            Stats templateStats = stats.get(template);
+            try {
+                long statisticsBefore = estimator == null ? 0 : estimator.statisticsNanos();
+                long start = System.nanoTime();
+                SearchRequest request = translator.translateRequest(cohql);
+                long translated = System.nanoTime();
+                // Statistics reads are Redis round trips made during translation; report them apart
+                long statistics = estimator == null ? 0 : estimator.statisticsNanos() - statisticsBefore;
+                executor.search(request, generator.parameters(template.parameterFields(), random));
+                long executed = System.nanoTime();
+                if (measured) {
+                    overall.translation.record(translated - start - statistics);
+                    overall.execution.record(executed - translated);
+                    templateStats.translation.record(translated - start - statistics);
+                    templateStats.execution.record(executed - translated);
+                    if (estimator != null) {
+                        overall.statistics.record(statistics);
+                        templateStats.statistics.record(statistics);
+                    }
+                }
+            } catch (Exception e) {
+                if (measured) {
+                    overall.error(e);
+                    templateStats.error(e);
+                }
+            }
+        }
+    }
+
+    private Template pick(SplittableRandom random) {
+        int ticket = random.nextInt(totalWeight);
+        for (Template template : templates) {
+            ticket -= template.weight();
+            if (ticket < 0) return template;
+        }
+        return templates.get(templates.size() - 1);
+    }
+}
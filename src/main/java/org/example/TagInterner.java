@@ -0,0 +1,52 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Maps TAG value bytes to a shared String instance. Lookups compare the reply bytes directly,
+ * so a repeated tag costs no allocation. The table is fixed-size and lock-free; once a probe
+ * sequence is full the value is decoded without interning, which bounds memory on
+ * high-cardinality tags.
+ */
+final class TagInterner {
+
+    private static final int MAX_PROBES = 8;
+
+    private final AtomicReferenceArray<Entry> table;
+    private final int mask;
+
+    TagInterner(int capacity) {
+        int size = Integer.highestOneBit(Math.max(16, capacity - 1)) << 1;
+        this.table = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    String intern(ByteBuffer bytes) {
+        int hash = AsciiBytes.hash(bytes);
+        int index = hash & mask;
+        for (int probe = 0; probe < MAX_PROBES; probe++, index = (index + 1) & mask) {
+            Entry entry = table.get(index);
+            if (entry == null) {
+                Entry created = new Entry(AsciiBytes.toArray(bytes), hash);
+                if (table.compareAndSet(index, null, created)) return created.value;
+                entry = table.get(index);
+            }
+            if (entry.hash == hash && AsciiBytes.equals(entry.bytes, bytes)) return entry.value;
+        }
+        return StandardCharsets.UTF_8.decode(bytes.duplicate()).toString();
+    }
+
+    private static final class Entry {
+        final byte[] bytes;
+        final int hash;
+        final String value;
+
+        Entry(byte[] bytes, int hash) {
+            this.bytes = bytes;
+            this.hash = hash;
+            this.value = new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.example;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Default {@link QueryOptions} per tenant, typically a TIMEOUT sized to the tenant's latency
+ * budget so that runaway queries are cut off by Redis instead of tying up pooled connections.
+ * Load RediSearch with {@code ON_TIMEOUT FAIL} so that a timed-out query errors rather than
+ * returning partial results, which the result cache would keep.
+ */
+public class TenantQueryOptions {
+
+    private final QueryOptions fallback;
+    private final Map<String, QueryOptions> tenants = new ConcurrentHashMap<>();
+
+    /**
+     * @param fallback options for tenants without their own
+     */
+    public TenantQueryOptions(QueryOptions fallback) {
+        this.fallback = fallback == null ? QueryOptions.NONE : fallback;
+    }
+
+    public void put(String tenant, QueryOptions options) {
+        tenants.put(tenant, options);
+    }
+
+    public void remove(String tenant) {
+        tenants.remove(tenant);
+    }
+
+    public QueryOptions get(String tenant) {
+        QueryOptions options = tenant == null ? null : tenants.get(tenant);
+        return options == null ? fallback : options;
+    }
+}
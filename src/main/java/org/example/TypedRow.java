@@ -0,0 +1,100 @@
+package org.example;
+
+/**
+ * A search result document with NUMERIC fields held as primitives and TEXT/TAG fields as Strings.
+ */
+public final class TypedRow {
+
+    private static final byte ABSENT = 0;
+    private static final byte LONG = 1;
+    private static final byte DOUBLE = 2;
+
+    private final RowSchema schema;
+    private final String key;
+    private final long[] numbers;
+    private final byte[] kinds;
+    private final String[] strings;
+
+    TypedRow(RowSchema schema, String key, int numericCount, int stringCount) {
+        this.schema = schema;
+        this.key = key;
+        this.numbers = new long[numericCount];
+        this.kinds = new byte[numericCount];
+        this.strings = new String[stringCount];
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public boolean isNull(String field) {
+        int column = schema.column(field);
+        int slot = schema.slot(column);
+        return schema.type(column) == CohQLToRedisTranslator.FieldType.NUMERIC
+                ? kinds[slot] == ABSENT
+                : strings[slot] == null;
+    }
+
+    public long getLong(String field) {
+        int slot = numericSlot(field);
+        return switch (kinds[slot]) {
+            case LONG -> numbers[slot];
+            case DOUBLE -> (long) Double.longBitsToDouble(numbers[slot]);
+            default -> throw new IllegalStateException("Field is null: " + field);
+        };
+    }
+
+    public double getDouble(String field) {
+        int slot = numericSlot(field);
+        return switch (kinds[slot]) {
+            case LONG -> numbers[slot];
+            case DOUBLE -> Double.longBitsToDouble(numbers[slot]);
+            default -> Double.NaN;
+        };
+    }
+
+    public String getString(String field) {
+        int column = schema.column(field);
+        if (schema.type(column) == CohQLToRedisTranslator.FieldType.NUMERIC) {
+            throw new IllegalArgumentException("Not a TEXT or TAG field: " + field);
+        }
+        return strings[schema.slot(column)];
+    }
+
+    void putLong(int slot, long value) {
+        numbers[slot] = value;
+        kinds[slot] = LONG;
+    }
+
+    void putDouble(int slot, double value) {
+        numbers[slot] = Double.doubleToRawLongBits(value);
+        kinds[slot] = DOUBLE;
+    }
+
+    void putString(int slot, String value) {
+        strings[slot] = value;
+    }
+
+    private int numericSlot(String field) {
+        int column = schema.column(field);
+        if (schema.type(column) != CohQLToRedisTranslator.FieldType.NUMERIC) {
+            throw new IllegalArgumentException("Not a NUMERIC field: " + field);
+        }
+        return schema.slot(column);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(key).append('{');
+        for (int column = 0, n = numbers.length + strings.length; column < n; column++) {
+            String name = schema.name(column);
+            if (column > 0) sb.append(", ");
+            sb.append(name).append('=');
+            if (isNull(name)) sb.append("null");
+            else if (schema.type(column) == CohQLToRedisTranslator.FieldType.NUMERIC) {
+                sb.append(kinds[schema.slot(column)] == LONG ? getLong(name) : getDouble(name));
+            } else sb.append(getString(name));
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,86 @@
+package org.example;
+
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.output.CommandOutput;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Decodes a RESP2 FT.SEARCH reply straight from the protocol buffers into {@link TypedRow}s.
+ * Field names are matched against the schema as bytes and values are parsed in place, so no
+ * intermediate String map is built per document. Handles both full replies
+ * ({@code [total, key, [field, value, ...], ...]}) and NOCONTENT replies ({@code [total, key, ...]}).
+ */
+class TypedRowOutput extends CommandOutput<String, ByteBuffer, TypedSearchResults> {
+
+    private final RowSchema schema;
+    private final List<TypedRow> rows = new ArrayList<>();
+    private long total;
+    private int depth;
+    private String pendingKey;
+    private TypedRow current;
+    private int column = RowSchema.NOT_FOUND;
+    private boolean expectName = true;
+
+    TypedRowOutput(RedisCodec<String, ByteBuffer> codec, RowSchema schema) {
+        super(codec, null);
+        this.schema = schema;
+    }
+
+    @Override
+    public void set(long integer) {
+        if (depth == 1) total = integer;
+    }
+
+    @Override
+    public void set(ByteBuffer bytes) {
+        if (depth == 1) {
+            flushPendingKey();
+            pendingKey = bytes == null ? null : codec.decodeKey(bytes);
+        } else if (depth == 2 && current != null) {
+            if (expectName) {
+                column = bytes == null ? RowSchema.NOT_FOUND : schema.column(bytes);
+            } else if (column != RowSchema.NOT_FOUND) {
+                schema.decode(current, column, bytes);
+            }
+            expectName = !expectName;
+        }
+    }
+
+    @Override
+    public void multi(int count) {
+        depth++;
+        if (depth == 2 && pendingKey != null) {
+            current = schema.newRow(pendingKey);
+            pendingKey = null;
+            expectName = true;
+        }
+    }
+
+    @Override
+    public void complete(int depth) {
+        if (this.depth >= 2 && depth < 2 && current != null) {
+            rows.add(current);
+            current = null;
+        }
+        this.depth = depth;
+        if (depth == 0) flushPendingKey();
+    }
+
+    @Override
+    public TypedSearchResults get() {
+        flushPendingKey();
+        return new TypedSearchResults(total, Collections.unmodifiableList(rows));
+    }
+
+    private void flushPendingKey() {
+        // A key with no field array following it (NOCONTENT)
+        if (pendingKey != null) {
+            rows.add(schema.newRow(pendingKey));
+            pendingKey = null;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package org.example;
+
+import java.util.List;
+
+/**
+ * Decoded FT.SEARCH reply: the total match count and the documents returned in this page.
+ */
+public record TypedSearchResults(long total, List<TypedRow> rows) {
+}
@@ -0,0 +1,151 @@
+package org.example;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Generates synthetic documents and query values matching a translator schema. Each document is
+ * derived from the seed and its id alone, so datasets of any size are reproducible and can be
+ * generated in parallel without keeping anything in memory.
+ * <p>
+ * TEXT and TAG values are drawn from {@code cardinality} distinct words, NUMERIC values from
+ * {@code [0, 100000)}, DATE and TIMESTAMP values from 2020-2025, GEO points from a 1 degree box
+ * and VECTOR values are unit-length FLOAT32 vectors of {@code vectorDimension}. Query templates
+ * use {@code {field}} placeholders, which {@link #instantiate} fills with a CohQL literal drawn
+ * from the same distribution as the data.
+ */
+public class WorkloadGenerator {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{(\\w+)}");
+    private static final long DATE_START = LocalDate.of(2020, 1, 1).toEpochDay();
+    private static final long DATE_DAYS = LocalDate.of(2026, 1, 1).toEpochDay() - DATE_START;
+    private static final double GEO_LON = -74.0;
+    private static final double GEO_LAT = 40.5;
+
+    private final Map<String, String> fieldTypes;
+    private final long seed;
+    private final int cardinality;
+    private final int vectorDimension;
+
+    public WorkloadGenerator(Map<String, String> fieldTypes, long seed, int cardinality, int vectorDimension) {
+        if (cardinality < 1) {
+            throw new IllegalArgumentException("cardinality must be positive: " + cardinality);
+        }
+        this.fieldTypes = new TreeMap<>(fieldTypes);
+        this.seed = seed;
+        this.cardinality = cardinality;
+        this.vectorDimension = vectorDimension;
+    }
+
+    /**
+     * Document {@code id}, keyed {@code keyPrefix + id} under {@link BulkLoader#KEY_COLUMN}.
+     */
+    public Map<String, Object> document(String keyPrefix, long id) {
+        SplittableRandom random = new SplittableRandom(seed ^ (id * 0x9E3779B97F4A7C15L));
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put(BulkLoader.KEY_COLUMN, keyPrefix + id);
+        for (String field : fieldTypes.keySet()) {
+            document.put(field, value(field, random));
+        }
+        return document;
+    }
+
+    /**
+     * Lazily generates documents {@code 0 .. count-1}.
+     */
+    public Iterator<Map<String, Object>> documents(String keyPrefix, long count) {
+        return new Iterator<>() {
+            private long next;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public Map<String, Object> next() {
+                if (next >= count) throw new NoSuchElementException();
+                return document(keyPrefix, next++);
+            }
+        };
+    }
+
+    /**
+     * A value for {@code field}, in the form {@link BulkLoader} encodes.
+     */
+    public Object value(String field, SplittableRandom random) {
+        String type = fieldTypes.get(field);
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown field: " + field);
+        }
+        return switch (CohQLToRedisTranslator.FieldType.valueOf(type)) {
+            case TEXT, TAG -> field + random.nextInt(cardinality);
+            case NUMERIC -> random.nextInt(100_000);
+            case DATE -> LocalDate.ofEpochDay(DATE_START + random.nextLong(DATE_DAYS));
+            case TIMESTAMP -> Instant.ofEpochSecond((DATE_START + random.nextLong(DATE_DAYS)) * 86_400 + random.nextInt(86_400));
+            case GEO -> new double[]{round(GEO_LON + random.nextDouble()), round(GEO_LAT + random.nextDouble())};
+            case GEOSHAPE -> square(GEO_LON + random.nextDouble(), GEO_LAT + random.nextDouble(), 0.01);
+            case VECTOR -> vector(random);
+        };
+    }
+
+    /**
+     * Replaces each {@code {field}} placeholder with a CohQL literal for that field: quoted for
+     * TEXT, TAG, DATE and TIMESTAMP, bare for NUMERIC, and {@code lon, lat} for GEO.
+     */
+    public String instantiate(String template, SplittableRandom random) {
+        Matcher matcher = PLACEHOLDER.matcher(template);
+        StringBuilder sb = new StringBuilder();
+        while (matcher.find()) {
+            matcher.appendReplacement(sb, Matcher.quoteReplacement(literal(matcher.group(1), random)));
+        }
+        matcher.appendTail(sb);
+        return sb.toString();
+    }
+
+    private String literal(String field, SplittableRandom random) {
+        Object value = value(field, random);
+        if (value instanceof Number) return value.toString();
+        if (value instanceof double[] point) return point[0] + ", " + point[1];
+        if (value instanceof float[]) {
+            throw new IllegalArgumentException("Bind VECTOR fields as parameters, not placeholders: " + field);
+        }
+        return "'" + value.toString().replace("'", "''") + "'";
+    }
+
+    /**
+     * Values for a template's bound parameters, each drawn from the field it is compared with,
+     * e.g. {@code vec -> embedding} gives a random query vector.
+     */
+    public Map<String, Object> parameters(Map<String, String> parameterFields, SplittableRandom random) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameterFields.forEach((name, field) -> parameters.put(name, value(field, random)));
+        return parameters;
+    }
+
+    float[] vector(SplittableRandom random) {
+        float[] vector = new float[vectorDimension];
+        double norm = 0;
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = (float) (random.nextDouble() * 2 - 1);
+            norm += vector[i] * vector[i];
+        }
+        float scale = norm == 0 ? 0 : (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= scale;
+        }
+        return vector;
+    }
+
+    private static String square(double lon, double lat, double size) {
+        double x0 = round(lon), y0 = round(lat), x1 = round(lon + size), y1 = round(lat + size);
+        return "POLYGON((%s %s, %s %s, %s %s, %s %s, %s %s))".formatted(x0, y0, x1, y0, x1, y1, x0, y1, x0, y0);
+    }
+
+    private static double round(double degrees) {
+        return Math.round(degrees * 1e6) / 1e6;
+    }
+}
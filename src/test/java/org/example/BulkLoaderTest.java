@@ -0,0 +1,74 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkLoaderTest {
+
+    private static final Map<String, String> FIELD_TYPES = Map.of(
+            "status", "TAG",
+            "amount", "NUMERIC",
+            "orderDate", "DATE"
+    );
+
+    private final CohQLToRedisTranslator translator = new CohQLToRedisTranslator(FIELD_TYPES, "_index");
+
+    @Test
+    void translatesMultiRowInsert() throws Exception {
+        InsertPlan plan = translator.translateInsert(
+                "INSERT INTO Orders (__key, status, amount, orderDate) VALUES "
+                        + "('order:1', 'PAID', 10, '2025-06-01'), ('order:2', NULL, -2.5, '2025-06-01')");
+        assertEquals("Orders", plan.table());
+        assertEquals(List.of(
+                new InsertPlan.Document("order:1", Map.of("status", "PAID", "amount", "10", "orderDate", "1748736000000")),
+                new InsertPlan.Document("order:2", Map.of("amount", "-2.5", "orderDate", "1748736000000"))
+        ), plan.documents());
+    }
+
+    @Test
+    void translatesSingleColumnRows() throws Exception {
+        InsertPlan plan = translator.translateInsert("INSERT INTO Orders (__key) VALUES ('order:1'), ('order:2')");
+        assertEquals(List.of("order:1", "order:2"), plan.documents().stream().map(InsertPlan.Document::key).toList());
+    }
+
+    @Test
+    void translatesCohQLKeyValueInsert() throws Exception {
+        InsertPlan plan = translator.translateInsert("INSERT INTO 'fx-rates' KEY 'USD' VALUE 1.08;");
+        assertEquals("fx-rates", plan.table());
+        assertEquals(List.of(new InsertPlan.Document("USD", Map.of(BulkLoader.VALUE_COLUMN, "1.08"))), plan.documents());
+
+        InsertPlan numericKey = translator.translateInsert("insert into rates key (42) value ('forty-two')");
+        assertEquals(List.of(new InsertPlan.Document("42", Map.of(BulkLoader.VALUE_COLUMN, "forty-two"))),
+                numericKey.documents());
+        assertThrows(UnsupportedOperationException.class,
+                () -> translator.translateInsert("INSERT INTO rates KEY 'k' VALUE new Rate('USD', 1.08)"));
+    }
+
+    @Test
+    void prefixesInsertKeysWithTheirTable() throws Exception {
+        BulkLoader loader = new BulkLoader(translator, List.of(), Map.of("Orders", "order:"), 100);
+        InsertPlan rates = translator.translateInsert("INSERT INTO 'fx-rates' KEY 'USD' VALUE 1.08");
+        InsertPlan other = translator.translateInsert("INSERT INTO 'other' KEY 'USD' VALUE 1.08");
+
+        assertEquals("fx-rates:USD", loader.keyFor(rates.table(), rates.documents().get(0).key()));
+        assertEquals("other:USD", loader.keyFor(other.table(), other.documents().get(0).key()));
+        assertEquals("order:1", loader.keyFor("Orders", "1"));
+    }
+
+    @Test
+    void rejectsInsertWithoutKey() {
+        assertThrows(IllegalArgumentException.class,
+                () -> translator.translateInsert("INSERT INTO Orders (status) VALUES ('PAID')"));
+    }
+
+    @Test
+    void parsesCsvLines() {
+        assertEquals(List.of("order:1", "PAID", "10"), BulkLoader.parseCsvLine("order:1,PAID,10"));
+        assertEquals(Arrays.asList("a,b", "say \"hi\"", null, ""), BulkLoader.parseCsvLine("\"a,b\",\"say \"\"hi\"\"\",,\"\""));
+    }
+}
@@ -0,0 +1,162 @@
+package org.example;
+
+import io.lettuce.core.RedisCommandTimeoutException;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.cluster.models.partitions.Partitions;
+import io.lettuce.core.cluster.models.partitions.RedisClusterNode;
+import io.lettuce.core.protocol.AsyncCommand;
+import io.lettuce.core.protocol.Command;
+import io.lettuce.core.protocol.CommandArgs;
+import io.lettuce.core.output.CommandOutput;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClusterSearchTransportTest {
+
+    private static final RowSchema SCHEMA = RowSchema.from(Map.of("amount", "NUMERIC", "embedding", "VECTOR"));
+
+    private static TypedRow row(String key, String column, double value) {
+        TypedRow row = SCHEMA.newRow(key);
+        row.putDouble(SCHEMA.slot(SCHEMA.column(column)), value);
+        return row;
+    }
+
+    private static SearchRequest request(String query, List<String> arguments) {
+        return new SearchRequest("idx", query, Double.NaN, List.of(), arguments, List.of());
+    }
+
+    private static List<String> keys(TypedSearchResults results) {
+        return results.rows().stream().map(TypedRow::key).toList();
+    }
+
+    @Test
+    void readsAndReplacesThePage() {
+        List<String> arguments = List.of("SORTBY", "amount", "DESC", "LIMIT", "20", "10");
+        assertEquals(new SearchPage("amount", true, 20, 10), SearchPage.of(arguments));
+        assertEquals(List.of("SORTBY", "amount", "DESC", "LIMIT", "0", "30"), SearchPage.withLimit(arguments, 0, 30));
+
+        assertEquals(new SearchPage(null, false, 0, SearchPage.DEFAULT_LIMIT), SearchPage.of(List.of("DIALECT", "2")));
+        assertEquals(List.of("DIALECT", "2", "LIMIT", "0", "10"), SearchPage.withLimit(List.of("DIALECT", "2"), 0, 10));
+    }
+
+    @Test
+    void mergesSortedPagesAcrossShards() {
+        TypedSearchResults shard1 = new TypedSearchResults(40, List.of(
+                row("a:1", "amount", 90), row("a:2", "amount", 70), row("a:3", "amount", 10)));
+        TypedSearchResults shard2 = new TypedSearchResults(25, List.of(
+                row("b:1", "amount", 80), row("b:2", "amount", 75), SCHEMA.newRow("b:3")));
+
+        TypedSearchResults merged = ClusterSearchTransport.merge(
+                request("@amount:[0 +inf]", List.of("SORTBY", "amount", "DESC", "LIMIT", "1", "3")),
+                SCHEMA, List.of(shard1, shard2));
+
+        assertEquals(65, merged.total());
+        assertEquals(List.of("b:1", "b:2", "a:2"), keys(merged));
+    }
+
+    @Test
+    void ordersKnnResultsByDistanceAndCapsTheTotal() {
+        String score = RowSchema.scoreColumn("embedding");
+        TypedSearchResults shard1 = new TypedSearchResults(3, List.of(row("a:1", score, 0.1), row("a:2", score, 0.4)));
+        TypedSearchResults shard2 = new TypedSearchResults(3, List.of(row("b:1", score, 0.2), row("b:2", score, 0.3)));
+
+        TypedSearchResults merged = ClusterSearchTransport.merge(
+                request("(*)=>[KNN 3 @embedding $vec]", List.of("LIMIT", "0", "3", "DIALECT", "2")),
+                SCHEMA, List.of(shard1, shard2));
+
+        assertEquals(3, merged.total());
+        assertEquals(List.of("a:1", "b:1", "b:2"), keys(merged));
+    }
+
+    @Test
+    void interleavesUnsortedPages() {
+        TypedSearchResults shard1 = new TypedSearchResults(2, List.of(SCHEMA.newRow("a:1"), SCHEMA.newRow("a:2")));
+        TypedSearchResults shard2 = new TypedSearchResults(1, List.of(SCHEMA.newRow("b:1")));
+
+        TypedSearchResults merged = ClusterSearchTransport.merge(request("*", List.of()), SCHEMA, List.of(shard1, shard2));
+
+        assertEquals(3, merged.total());
+        assertEquals(List.of("a:1", "b:1", "a:2"), keys(merged));
+    }
+
+    @Test
+    void mergesTextIgnoringCaseLikeRediSearch() {
+        RowSchema schema = RowSchema.from(Map.of("name", "TEXT"));
+        TypedSearchResults shard1 = new TypedSearchResults(2, List.of(named(schema, "a:1", "apple"), named(schema, "a:2", "cherry")));
+        TypedSearchResults shard2 = new TypedSearchResults(1, List.of(named(schema, "b:1", "Banana")));
+
+        TypedSearchResults merged = ClusterSearchTransport.merge(
+                request("*", List.of("SORTBY", "name", "ASC", "LIMIT", "0", "3")), schema, List.of(shard1, shard2));
+
+        assertEquals(List.of("a:1", "b:1", "a:2"), keys(merged));
+    }
+
+    private static TypedRow named(RowSchema schema, String key, String name) {
+        TypedRow row = schema.newRow(key);
+        row.putString(schema.slot(schema.column("name")), name);
+        return row;
+    }
+
+    @Test
+    void opensShardsOnPrimariesServingSlots() {
+        Partitions partitions = new Partitions();
+        partitions.add(node("redis://a:7000", List.of(0, 1), RedisClusterNode.NodeFlag.UPSTREAM));
+        partitions.add(node("redis://b:7001", List.of(), RedisClusterNode.NodeFlag.UPSTREAM));
+        partitions.add(node("redis://c:7002", List.of(), RedisClusterNode.NodeFlag.REPLICA));
+        partitions.add(node("redis://d:7003", List.of(2), RedisClusterNode.NodeFlag.UPSTREAM));
+
+        assertEquals(List.of(RedisURI.create("redis://a:7000"), RedisURI.create("redis://d:7003")),
+                ClusterSearchTransport.primaries(partitions));
+    }
+
+    @Test
+    void failsWhenAShardDoesNotAnswerInTime() {
+        List<RedisFuture<?>> sent = new ArrayList<>();
+        ClusterSearchTransport transport = new ClusterSearchTransport(List.of(
+                new ConnectionPool(List.of(silentConnection(sent))), new ConnectionPool(List.of(silentConnection(sent)))));
+
+        assertThrows(RedisCommandTimeoutException.class,
+                () -> transport.search("idx", request("*", List.of()), Map.of(), SCHEMA));
+        assertEquals(2, sent.size());
+        assertTrue(sent.stream().allMatch(RedisFuture::isCancelled));
+    }
+
+    private static RedisClusterNode node(String uri, List<Integer> slots, RedisClusterNode.NodeFlag flag) {
+        return new RedisClusterNode(RedisURI.create(uri), uri, true, null, 0, 0, 0, slots, Set.of(flag));
+    }
+
+    /**
+     * A connection that accepts every command and never replies.
+     */
+    @SuppressWarnings("unchecked")
+    private static StatefulRedisConnection<String, ByteBuffer> silentConnection(List<RedisFuture<?>> sent) {
+        RedisAsyncCommands<String, ByteBuffer> async = (RedisAsyncCommands<String, ByteBuffer>) Proxy.newProxyInstance(
+                ClusterSearchTransportTest.class.getClassLoader(), new Class<?>[]{RedisAsyncCommands.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("dispatch")) throw new UnsupportedOperationException(method.getName());
+                    AsyncCommand<String, ByteBuffer, Object> command = new AsyncCommand<>(new Command<>(SearchCommand.FT_SEARCH,
+                            (CommandOutput<String, ByteBuffer, Object>) args[1], (CommandArgs<String, ByteBuffer>) args[2]));
+                    sent.add(command);
+                    return command;
+                });
+        return (StatefulRedisConnection<String, ByteBuffer>) Proxy.newProxyInstance(
+                ClusterSearchTransportTest.class.getClassLoader(), new Class<?>[]{StatefulRedisConnection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "async" -> async;
+                    case "getTimeout" -> Duration.ofMillis(50);
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -1,23 +1,26 @@
 package org.example;
 
 import net.sf.jsqlparser.JSQLParserException;
+import org.junit.jupiter.api.Test;
 
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 
 import static java.util.Map.entry;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class CohQLToRedisTranslatorTest {
     private static final Map<String, String> FIELD_TYPES = Map.ofEntries(
             entry("propName1", "TEXT"),
             entry("propName2", "TEXT"),
             entry("propName3", "TEXT"),
-            entry("propName4", "TEXT"),
-            entry("propName5", "TEXT"),
-            entry("propName6", "TEXT"),
-            entry("propName7", "TEXT"),
-            entry("propName8", "TEXT"),
+            entry("propName4", "NUMERIC"),
+            entry("propName5", "NUMERIC"),
+            entry("propName6", "NUMERIC"),
+            entry("propName7", "NUMERIC"),
+            entry("propName8", "NUMERIC"),
             entry("propName9", "TEXT"),
             entry("propName10", "TEXT"),
             entry("propName11", "TEXT"),
@@ -33,9 +36,9 @@ public class CohQLToRedisTranslatorTest {
             entry("productId", "NUMERIC"),
             entry("customerId", "NUMERIC")   ,
             entry("location", "TEXT") ,
-            entry("restockDate", "TEXT"),
-            entry("orderDate", "TEXT"),
-            entry("lastPurchase", "TEXT"),
+            entry("restockDate", "DATE"),
+            entry("orderDate", "DATE"),
+            entry("lastPurchase", "DATE"),
             entry("city", "TEXT")   ,
             entry("name", "TEXT")
     );
@@ -90,15 +93,15 @@ public class CohQLToRedisTranslatorTest {
 
         String cohql11 = "SELECT * FROM Inventory WHERE (location = 'NY' AND (stock < 50 OR restockDate <= '2025-06-01')) OR (location = 'LA' AND stock > 100)";
         System.out.println("Test 11: " + translator.translate(cohql11));
-        // Expected: FT.SEARCH Inventory_index ((@location:NY (@stock:[-inf (50]|@restockDate:[-inf 2025-06-01]))|(@location:LA @stock:[(100 +inf]))
+        // Expected: FT.SEARCH Inventory_index ((@location:NY (@stock:[-inf (50]|@restockDate:[-inf (1748822400000]))|(@location:LA @stock:[(100 +inf]))
 
         String cohql12 = "SELECT * FROM Orders WHERE status != 'SHIPPED' AND orderDate BETWEEN '2025-05-01' AND '2025-05-31'";
         System.out.println("Test 12: " + translator.translate(cohql12));
-        // Expected: FT.SEARCH Orders_index -@status:SHIPPED @orderDate:[2025-05-01 2025-05-31]
+        // Expected: FT.SEARCH Orders_index -@status:SHIPPED @orderDate:[1746057600000 (1748736000000]
 
         String cohql13 = "SELECT * FROM Customers WHERE (age > 21 AND age < 65) OR (city = 'London' AND lastPurchase >= '2025-01-01') AND name LIKE 'J%'\n";
         System.out.println("Test 13: " + translator.translate(cohql13));
-        // Expected: FT.SEARCH Customers_index (((@age:[(21 65])|(@city:London @lastPurchase:[2025-01-01 +inf])) @name:J*)
+        // Expected: FT.SEARCH Customers_index (((@age:[(21 65])|(@city:London @lastPurchase:[1735689600000 +inf])) @name:J*)
 
         String cohql14 = "SELECT * FROM Products WHERE productId IN (101, 102, 103) OR name IN ('WidgetA', 'WidgetB')";
         System.out.println("Test 14: " + translator.translate(cohql14));
@@ -109,5 +112,13 @@ public class CohQLToRedisTranslatorTest {
         // Expected: FT.SEARCH Users_index -@username:{admin|root|superuser}
 
     }
-}
 
+    @Test
+    void translatesOrderByAndLimit() throws Exception {
+        CohQLToRedisTranslator translator = new CohQLToRedisTranslator(FIELD_TYPES, "_idx");
+        SearchRequest request = translator.translateRequest("SELECT * FROM Orders WHERE price > 30 ORDER BY price DESC LIMIT 20 OFFSET 40");
+        assertEquals(List.of("SORTBY", "price", "DESC", "LIMIT", "40", "20"), request.arguments());
+        assertThrows(UnsupportedOperationException.class,
+                () -> translator.translate("SELECT * FROM Orders WHERE price > 30 ORDER BY price, name"));
+    }
+}
@@ -0,0 +1,175 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CostEstimatorTest {
+
+    private static final Map<String, String> FIELD_TYPES = Map.of(
+            "name", "TEXT",
+            "age", "NUMERIC",
+            "email", "TEXT",
+            "role", "TAG"
+    );
+
+    private static final IndexStatistics STATISTICS = new IndexStatistics() {
+        private final Map<String, Long> counts = Map.of(
+                "@role:{admin}", 5L
+        );
+
+        @Override
+        public long documentCount(String index) {
+            return 1000;
+        }
+
+        @Override
+        public long count(String index, String query) {
+            return counts.getOrDefault(query, -1L);
+        }
+    };
+
+    private final CohQLToRedisTranslator translator =
+            new CohQLToRedisTranslator(FIELD_TYPES, null, new CostEstimator(STATISTICS, "test_idx"));
+
+    @Test
+    void reordersIntersectionsBySelectivity() throws Exception {
+        SearchRequest request = translator.translateRequest("age > 10 AND role = 'admin'");
+        assertEquals("@role:{admin} @age:[(10 +inf]", request.query());
+        assertEquals(5 + 1000 * CostEstimator.OPEN_RANGE_SELECTIVITY, request.estimatedCost(), 1e-9);
+    }
+
+    @Test
+    void costsSuffixLikeByItsPlan() throws Exception {
+        assertEquals(1000, translator.translateRequest("email LIKE '%test.com'").estimatedCost(), 1e-9);
+
+        CohQLToRedisTranslator trie = new CohQLToRedisTranslator(FIELD_TYPES, null,
+                new CostEstimator(STATISTICS, "test_idx"), new LikePlanner(Set.of("email")));
+        assertEquals(1000 * CostEstimator.PREFIX_SELECTIVITY,
+                trie.translateRequest("email LIKE '%test.com'").estimatedCost(), 1e-9);
+        assertEquals(1000, trie.translateRequest("name LIKE '%son'").estimatedCost(), 1e-9);
+    }
+
+    @Test
+    void cachedPlansAreReestimatedOnceStatisticsExpire() throws Exception {
+        long[] adminCount = {5};
+        long[] maxAge = {Long.MAX_VALUE};
+        IndexStatistics changing = new IndexStatistics() {
+            @Override
+            public long documentCount(String index) {
+                return 1000;
+            }
+
+            @Override
+            public long count(String index, String query) {
+                return query.equals("@role:{admin}") ? adminCount[0] : -1;
+            }
+
+            @Override
+            public long maxAgeNanos() {
+                return maxAge[0];
+            }
+        };
+        CohQLToRedisTranslator translator =
+                new CohQLToRedisTranslator(FIELD_TYPES, null, new CostEstimator(changing, "test_idx"));
+        assertEquals(5 + 1000 * CostEstimator.OPEN_RANGE_SELECTIVITY,
+                translator.translateRequest("age > 10 AND role = 'admin'").estimatedCost(), 1e-9);
+
+        adminCount[0] = 900;
+        assertEquals(5 + 1000 * CostEstimator.OPEN_RANGE_SELECTIVITY,
+                translator.translateRequest("age > 10 AND role = 'admin'").estimatedCost(), 1e-9);
+
+        maxAge[0] = 0;
+        SearchRequest refreshed = translator.translateRequest("age > 10 AND role = 'admin'");
+        assertEquals("@age:[(10 +inf] @role:{admin}", refreshed.query());
+        assertEquals(1000 * CostEstimator.OPEN_RANGE_SELECTIVITY + 900, refreshed.estimatedCost(), 1e-9);
+    }
+
+    @Test
+    void accountsStatisticsTimePerThread() throws Exception {
+        CostEstimator estimator = new CostEstimator(new IndexStatistics() {
+            @Override
+            public long documentCount(String index) {
+                return 1000;
+            }
+
+            @Override
+            public long count(String index, String query) {
+                long until = System.nanoTime() + 1_000_000;
+                while (System.nanoTime() < until) {
+                    LockSupport.parkNanos(until - System.nanoTime());
+                }
+                return 5;
+            }
+        }, "test_idx");
+        CohQLToRedisTranslator timed = new CohQLToRedisTranslator(FIELD_TYPES, null, estimator);
+
+        long before = estimator.statisticsNanos();
+        timed.translateRequest("role = 'admin'");
+        assertTrue(estimator.statisticsNanos() - before >= 1_000_000);
+    }
+
+    @Test
+    void negationsAndOpenRangesAreNotCountedOnTheServer() throws Exception {
+        List<String> counted = new ArrayList<>();
+        IndexStatistics recording = new IndexStatistics() {
+            @Override
+            public long documentCount(String index) {
+                return 1000;
+            }
+
+            @Override
+            public long count(String index, String query) {
+                counted.add(query);
+                return 10;
+            }
+        };
+        CohQLToRedisTranslator estimating =
+                new CohQLToRedisTranslator(FIELD_TYPES, null, new CostEstimator(recording, "test_idx"));
+
+        SearchRequest request = estimating.translateRequest(
+                "role != 'guest' AND NOT (name = 'x') AND age >= 18 AND role NOT IN ('a', 'b') AND role = 'admin'");
+
+        assertEquals(List.of("@role:{admin}"), counted);
+        assertTrue(request.estimatedCost() >= 3000);
+    }
+
+    @Test
+    void withoutEstimatorOrderIsUnchanged() throws Exception {
+        CohQLToRedisTranslator plain = new CohQLToRedisTranslator(FIELD_TYPES, null);
+        SearchRequest request = plain.translateRequest("age > 10 AND role = 'admin'");
+        assertEquals("@age:[(10 +inf] @role:{admin}", request.query());
+        assertTrue(Double.isNaN(request.estimatedCost()));
+    }
+
+    @Test
+    void leadingWildcardCostsWholeIndex() throws Exception {
+        SearchRequest request = translator.translateRequest("email LIKE '%test.com'");
+        assertEquals(1000.0, request.estimatedCost());
+
+        QueryAdmission admission = new QueryAdmission(500, 100, 1, Duration.ZERO);
+        assertThrows(QueryRejectedException.class, () -> admission.admit(request));
+    }
+
+    @Test
+    void throttlesExpensiveQueries() {
+        QueryAdmission admission = new QueryAdmission(1000, 100, 1, Duration.ZERO);
+        SearchRequest expensive = new SearchRequest("test_idx", "*", 500);
+
+        QueryAdmission.Permit permit = admission.admit(expensive);
+        try {
+            assertThrows(QueryRejectedException.class, () -> admission.admit(expensive));
+            admission.admit(new SearchRequest("test_idx", "@role:{admin}", 5)).close();
+        } finally {
+            permit.close();
+        }
+        admission.admit(expensive).close();
+    }
+}
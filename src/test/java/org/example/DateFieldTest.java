@@ -0,0 +1,69 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DateFieldTest {
+
+    private static final Map<String, String> FIELD_TYPES = Map.of(
+            "orderDate", "DATE",
+            "createdAt", "TIMESTAMP",
+            "status", "TAG"
+    );
+
+    private static final long MAY_1 = 1746057600000L;
+    private static final long JUNE_1 = 1748736000000L;
+    private static final long JUNE_2 = JUNE_1 + DateValues.DAY_MILLIS;
+
+    private final CohQLToRedisTranslator translator = new CohQLToRedisTranslator(FIELD_TYPES, null);
+
+    @Test
+    void parsesDateLiterals() {
+        assertEquals(new DateValues.Range(JUNE_1, JUNE_1 + DateValues.DAY_MILLIS), DateValues.parse("2025-06-01"));
+        assertTrue(DateValues.parse("2025-06-01T00:00:00Z").isInstant());
+        assertEquals(JUNE_1 + 3_600_000L, DateValues.parse("2025-06-01 01:00:00").start());
+        assertEquals(JUNE_1, DateValues.parse("2025-06-01T02:00:00+02:00").start());
+        assertThrows(IllegalArgumentException.class, () -> DateValues.parse("yesterday"));
+    }
+
+    @Test
+    void translatesDateComparisonsToEpochRanges() throws Exception {
+        assertEquals("@orderDate:[" + MAY_1 + " (" + JUNE_1 + "]",
+                translator.translate("orderDate BETWEEN '2025-05-01' AND '2025-05-31'"));
+        assertEquals("@orderDate:[" + JUNE_2 + " +inf]", translator.translate("orderDate > '2025-06-01'"));
+        assertEquals("@orderDate:[-inf (" + JUNE_2 + "]", translator.translate("orderDate <= '2025-06-01'"));
+        assertEquals("@orderDate:[-inf (" + JUNE_1 + "]", translator.translate("orderDate < '2025-06-01'"));
+        assertEquals("@createdAt:[(" + JUNE_1 + " +inf]", translator.translate("createdAt > '2025-06-01T00:00:00Z'"));
+        assertEquals("@orderDate:[" + MAY_1 + " (" + (MAY_1 + DateValues.DAY_MILLIS) + "]",
+                translator.translate("orderDate = '2025-05-01'"));
+        assertEquals("@createdAt:[" + JUNE_1 + " " + JUNE_1 + "]",
+                translator.translate("createdAt = '2025-06-01T00:00:00Z'"));
+    }
+
+    @Test
+    void negatesNotBetween() throws Exception {
+        assertEquals("-@orderDate:[" + MAY_1 + " (" + JUNE_1 + "]",
+                translator.translate("orderDate NOT BETWEEN '2025-05-01' AND '2025-05-31'"));
+    }
+
+    @Test
+    void rejectsRangesOnTagAndTextFields() {
+        CohQLToRedisTranslator text = new CohQLToRedisTranslator(Map.of("name", "TEXT"), null);
+        assertThrows(UnsupportedOperationException.class, () -> text.translate("name > 'M'"));
+        assertThrows(UnsupportedOperationException.class, () -> text.translate("name BETWEEN 'A' AND 'M'"));
+        assertThrows(UnsupportedOperationException.class, () -> translator.translate("status <= '2025-06-01'"));
+    }
+
+    @Test
+    void encodesDatesForLoading() {
+        FieldEncoder encoder = new FieldEncoder(FIELD_TYPES);
+        assertEquals(Long.toString(JUNE_1), encoder.encode("orderDate", LocalDate.of(2025, 6, 1)));
+        assertEquals(Long.toString(JUNE_1), encoder.encode("createdAt", "2025-06-01T00:00:00Z"));
+        assertEquals("PAID", encoder.encode("status", "PAID"));
+        assertNull(encoder.encode("status", null));
+    }
+}
@@ -0,0 +1,99 @@
+package org.example;
+
+import io.lettuce.core.api.StatefulRedisConnection;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExplainTest {
+
+    private static final Map<String, String> FIELD_TYPES = Map.of(
+            "name", "TEXT",
+            "age", "NUMERIC",
+            "role", "TAG",
+            "embedding", "VECTOR"
+    );
+
+    private static final IndexStatistics STATISTICS = new IndexStatistics() {
+        @Override
+        public long documentCount(String index) {
+            return 1000;
+        }
+
+        @Override
+        public long count(String index, String query) {
+            return query.equals("@role:{admin}") ? 5 : -1;
+        }
+    };
+
+    @Test
+    void reportsLikeNarrowingAndTheEmittedRequest() throws Exception {
+        CohQLToRedisTranslator translator = new CohQLToRedisTranslator(FIELD_TYPES, "_idx");
+
+        QueryExplanation explanation = translator.explain("SELECT * FROM test WHERE name LIKE 'J_hn' AND age > 30");
+
+        assertEquals("AND", explanation.tree().label());
+        assertEquals(2, explanation.tree().children().size());
+        assertEquals(1, explanation.rewrites().size());
+        assertTrue(explanation.rewrites().get(0).startsWith("Narrowed name LIKE 'J_hn' to "),
+                explanation.rewrites().get(0));
+        SearchRequest request = explanation.request();
+        assertEquals("test_idx", request.index());
+        assertEquals("@name:*hn @age:[(30 +inf]", request.query());
+        assertEquals(List.of("name"), request.clientFilters().stream().map(SearchRequest.ClientFilter::field).toList());
+        // explain() bypasses the plan cache
+        assertTrue(translator.compiledPlans().isEmpty());
+    }
+
+    @Test
+    void reportsReorderingAndCostUnderAnEstimator() throws Exception {
+        CohQLToRedisTranslator translator = new CohQLToRedisTranslator(FIELD_TYPES, "_idx",
+                new CostEstimator(STATISTICS, "test_idx"));
+
+        QueryExplanation explanation = translator.explain("SELECT * FROM test WHERE age > 10 AND role = 'admin'");
+
+        // The tree shows the query as written, the request as emitted
+        assertEquals(List.of("age > 10", "role = 'admin'"),
+                explanation.tree().children().stream().map(ExplainNode::label).toList());
+        assertEquals(1, explanation.rewrites().size());
+        assertTrue(explanation.rewrites().get(0).startsWith("Reordered AND by estimated cardinality"));
+        assertEquals("@role:{admin} @age:[(10 +inf]", explanation.request().query());
+        assertTrue(explanation.toString().contains("Cost:"));
+    }
+
+    @Test
+    void reportsNoRewritesForPlainQueries() throws Exception {
+        CohQLToRedisTranslator translator = new CohQLToRedisTranslator(FIELD_TYPES, "_idx");
+
+        QueryExplanation explanation = translator.explain("SELECT * FROM test WHERE role = 'admin' ORDER BY age LIMIT 5");
+
+        assertTrue(explanation.rewrites().isEmpty());
+        assertEquals("FT.SEARCH test_idx @role:{admin} SORTBY age ASC LIMIT 0 5", explanation.request().toString());
+        assertTrue(explanation.toString().contains("Rewrites: none"));
+    }
+
+    @Test
+    void profilingNeedsEveryQueryParameter() {
+        SearchTransport transport = new SearchTransport() {
+            @Override
+            public TypedSearchResults search(String index, SearchRequest request, Map<String, ?> params, RowSchema rows) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public StatefulRedisConnection<String, ByteBuffer> connection() {
+                throw new AssertionError("FT.PROFILE must not be sent without its parameters");
+            }
+        };
+        RedisQueryExecutor executor = new RedisQueryExecutor(
+                new CohQLToRedisTranslator(FIELD_TYPES, "_idx"), transport, "test_idx");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> executor.explain("SELECT * FROM test WHERE knn(embedding, :vec, 3)", true));
+        assertEquals("Missing query parameter: vec", e.getMessage());
+    }
+}
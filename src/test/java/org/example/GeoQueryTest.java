@@ -0,0 +1,50 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GeoQueryTest {
+
+    private static final Map<String, String> FIELD_TYPES = Map.of(
+            "location", "GEO",
+            "area", "GEOSHAPE",
+            "name", "TEXT"
+    );
+
+    private final CohQLToRedisTranslator translator = new CohQLToRedisTranslator(FIELD_TYPES, null);
+
+    @Test
+    void translatesRadiusFilter() throws Exception {
+        assertEquals("@location:[-73.982254 40.753181 10 km]",
+                translator.translate("within(location, -73.982254, 40.753181, 10, 'km')"));
+        assertEquals("@name:\"cafe\" @location:[2.35 48.85 500 m]",
+                translator.translate("name = 'cafe' AND within(location, 2.35, 48.85, 500, 'M')"));
+        assertEquals("@location:[2.35 48.85 3 km]", translator.translate("within(location, 2.35, 48.85, 3)"));
+    }
+
+    @Test
+    void translatesShapePredicatesWithBoundShape() throws Exception {
+        SearchRequest request = translator.translateRequest("SELECT * FROM Zones WHERE intersects(area, :shape)");
+        assertEquals("@area:[INTERSECTS $shape]", request.query());
+        assertEquals(List.of("shape"), request.parameters());
+        assertEquals(List.of("DIALECT", "3"), request.arguments());
+    }
+
+    @Test
+    void rejectsInvalidGeoArguments() {
+        assertThrows(IllegalArgumentException.class, () -> translator.translate("within(location, 200, 40, 10, 'km')"));
+        assertThrows(IllegalArgumentException.class, () -> translator.translate("within(location, 2, 40, 10, 'parsec')"));
+        assertThrows(IllegalArgumentException.class, () -> translator.translate("within(name, 2, 40, 10, 'km')"));
+    }
+
+    @Test
+    void encodesGeoPoints() {
+        FieldEncoder encoder = new FieldEncoder(FIELD_TYPES);
+        assertEquals("2.35,48.85", encoder.encode("location", new double[]{2.35, 48.85}));
+        assertEquals("2.35,48.85", encoder.encode("location", "2.35,48.85"));
+    }
+}
@@ -0,0 +1,101 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndexAdvisorTest {
+
+    private static final Map<String, String> FIELD_TYPES = Map.of(
+            "name", "TEXT",
+            "email", "TEXT",
+            "role", "TAG",
+            "age", "NUMERIC"
+    );
+
+    private final CohQLToRedisTranslator translator = new CohQLToRedisTranslator(FIELD_TYPES, "_idx");
+
+    private final IndexStatistics statistics = new IndexStatistics() {
+        @Override
+        public long documentCount(String index) {
+            return 1000;
+        }
+
+        @Override
+        public long count(String index, String query) {
+            return -1;
+        }
+    };
+
+    @Test
+    void recommendsSortableTagAndSuffixTrie() throws Exception {
+        IndexAdvisor advisor = new IndexAdvisor(translator, statistics, null, Set.of());
+        advisor.observe("SELECT * FROM Users WHERE role = 'admin' ORDER BY age");
+        advisor.observe("SELECT * FROM Users WHERE name IN ('John', 'Alice')");
+        advisor.observe("SELECT * FROM Users WHERE email LIKE '%test.com'");
+        advisor.observe("SELECT * FROM Users WHERE email LIKE '%test.org'");
+
+        List<IndexAdvisor.Recommendation> recommendations = advisor.recommendations();
+        assertEquals(3, recommendations.size());
+
+        IndexAdvisor.Recommendation suffix = recommendations.get(0);
+        assertEquals(IndexAdvisor.Change.SUFFIX_TRIE, suffix.change());
+        assertEquals("email", suffix.field());
+        assertEquals(2 * 1000 * 0.9, suffix.estimatedSaving(), 1e-9);
+
+        IndexAdvisor.Recommendation sortable = recommendations.get(1);
+        assertEquals(IndexAdvisor.Change.SORTABLE, sortable.change());
+        assertEquals("Users_idx", sortable.index());
+        assertEquals(100.0, sortable.estimatedSaving(), 1e-9);
+
+        IndexAdvisor.Recommendation tag = recommendations.get(2);
+        assertEquals(IndexAdvisor.Change.TAG, tag.change());
+        assertEquals("name", tag.field());
+        // email is only matched with LIKE, whose wildcard terms are not stemmed, so no NOSTEM
+    }
+
+    @Test
+    void recommendsNoStemForExactMatchesOnFieldsThatStayText() throws Exception {
+        IndexAdvisor advisor = new IndexAdvisor(translator, statistics, null, Set.of());
+        advisor.observe("SELECT * FROM Users WHERE email = 'john' OR email LIKE '%test.com'");
+
+        List<IndexAdvisor.Recommendation> recommendations = advisor.recommendations();
+        IndexAdvisor.Recommendation noStem = recommendations.get(recommendations.size() - 1);
+        assertEquals(IndexAdvisor.Change.NOSTEM, noStem.change());
+        assertEquals("email", noStem.field());
+        assertEquals(1, noStem.queries());
+        assertEquals(100 * IndexAdvisor.STEM_EXPANSION, noStem.estimatedSaving(), 1e-9);
+    }
+
+    @Test
+    void observesQueriesThroughThePlanCache() throws Exception {
+        IndexAdvisor advisor = new IndexAdvisor(translator, statistics, null, Set.of());
+        translator.setIndexAdvisor(advisor);
+        String cohql = "SELECT * FROM Users WHERE role = 'admin' ORDER BY age";
+
+        translator.translateRequest(cohql);
+        translator.translateRequest(cohql);
+
+        // Compiled once; the second use is a cache hit and still counted
+        assertEquals(1, translator.compiledPlans().size());
+        IndexAdvisor.Recommendation sortable = advisor.recommendations().get(0);
+        assertEquals(IndexAdvisor.Change.SORTABLE, sortable.change());
+        assertEquals(2, sortable.queries());
+
+        translator.setIndexAdvisor(null);
+        advisor.observe(cohql);
+        assertEquals(1, translator.compiledPlans().size());
+        assertEquals(3, advisor.recommendations().get(0).queries());
+    }
+
+    @Test
+    void skipsFieldsAlreadyOptimized() throws Exception {
+        IndexAdvisor advisor = new IndexAdvisor(translator, statistics, null, Set.of("age"), Set.of("name"));
+        advisor.observe("SELECT * FROM Users WHERE name LIKE 'Jo%' OR name = 'John' ORDER BY age");
+        assertTrue(advisor.recommendations().isEmpty());
+    }
+}
@@ -0,0 +1,60 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndexDdlTest {
+
+    private static final Map<String, String> FIELD_TYPES = Map.of(
+            "name", "TEXT",
+            "role", "TAG",
+            "age", "NUMERIC",
+            "joined", "DATE"
+    );
+
+    private final CohQLToRedisTranslator translator = new CohQLToRedisTranslator(FIELD_TYPES, "_idx");
+    private final IndexDdl ddl = new IndexDdl(translator, Map.of("Users", "user:"), Set.of("age"));
+
+    @Test
+    void translatesCreateIndex() throws Exception {
+        assertEquals("FT.CREATE Users_idx ON HASH PREFIX 1 user: SCHEMA name TEXT role TAG age NUMERIC SORTABLE joined NUMERIC",
+                ddl.create("CREATE INDEX users_by_name ON Users (name, role, age, joined)").toString());
+    }
+
+    @Test
+    void declaresNoStemTextFields() throws Exception {
+        IndexDdl noStem = new IndexDdl(translator, Map.of(), Set.of(), Set.of("name", "role"));
+        assertEquals("FT.CREATE Users_idx ON HASH PREFIX 1 Users: SCHEMA name TEXT NOSTEM role TAG",
+                noStem.create("CREATE INDEX users_by_name ON Users (name, role)").toString());
+    }
+
+    @Test
+    void altersOnlyMissingFields() throws Exception {
+        String cohql = "CREATE INDEX users_by_name ON Users (name, role, age)";
+        assertEquals("FT.ALTER Users_idx SCHEMA ADD age NUMERIC SORTABLE",
+                ddl.alter(cohql, Set.of("name", "role")).toString());
+        assertNull(ddl.alter(cohql, Set.of("name", "role", "age")));
+    }
+
+    @Test
+    void readsAttributeNamesFromInfo() {
+        List<Object> info = List.of(
+                bytes("index_name"), bytes("Users_idx"),
+                bytes("attributes"), List.of(
+                        List.of(bytes("identifier"), bytes("name"), bytes("attribute"), bytes("name"), bytes("type"), bytes("TEXT")),
+                        List.of(bytes("identifier"), bytes("role"), bytes("attribute"), bytes("role"), bytes("type"), bytes("TAG"))),
+                bytes("num_docs"), 4L);
+        assertEquals(Set.of("name", "role"), IndexDdl.attributeNames(info));
+    }
+
+    private static ByteBuffer bytes(String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
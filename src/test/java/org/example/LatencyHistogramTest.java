@@ -0,0 +1,40 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    void bucketsAreMonotonicAndBoundValues() {
+        int previous = -1;
+        for (long value = 0; value < 1_000_000; value += 7) {
+            int bucket = LatencyHistogram.bucket(value);
+            assertTrue(bucket >= previous);
+            assertTrue(LatencyHistogram.upperBound(bucket) >= value);
+            assertTrue(LatencyHistogram.upperBound(bucket) <= value + value / 64 + 1);
+            previous = bucket;
+        }
+        assertTrue(LatencyHistogram.upperBound(LatencyHistogram.bucket(Long.MAX_VALUE)) >= Long.MAX_VALUE / 2);
+    }
+
+    @Test
+    void reportsPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 100_000; i++) {
+            histogram.record(i * 1000);
+        }
+        assertEquals(100_000, histogram.count());
+        assertEquals(100_000_000L, histogram.max());
+        assertEquals(50_000_000, histogram.percentile(0.5), 50_000_000 / 64.0);
+        assertEquals(99_000_000, histogram.percentile(0.99), 99_000_000 / 64.0);
+        assertEquals(99_900_000, histogram.percentile(0.999), 99_900_000 / 64.0);
+        assertEquals(50_000_500, histogram.mean(), 1e-6);
+    }
+
+    @Test
+    void emptyHistogramReportsZero() {
+        assertEquals(0, new LatencyHistogram().percentile(0.99));
+    }
+}
@@ -0,0 +1,137 @@
+package org.example;
+
+import io.lettuce.core.api.StatefulRedisConnection;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LikePlannerTest {
+
+    @Test
+    void classifiesPatterns() {
+        assertEquals(LikePlanner.Kind.EXACT, LikePlanner.classify("John"));
+        assertEquals(LikePlanner.Kind.PREFIX, LikePlanner.classify("Jo%"));
+        assertEquals(LikePlanner.Kind.SUFFIX, LikePlanner.classify("%test.com"));
+        assertEquals(LikePlanner.Kind.INFIX, LikePlanner.classify("%son%"));
+        assertEquals(LikePlanner.Kind.GENERAL, LikePlanner.classify("J_hn"));
+        assertEquals(LikePlanner.Kind.GENERAL, LikePlanner.classify("a%b"));
+        assertEquals(LikePlanner.Kind.GENERAL, LikePlanner.classify("%"));
+    }
+
+    @Test
+    void emitsFieldSpecificWildcards() {
+        LikePlanner planner = new LikePlanner(Set.of("email"));
+
+        assertEquals("@name:Jo*", planner.plan("name", "TEXT", "Jo%", false).fragment());
+        assertEquals("@email:*test.com", planner.plan("email", "TEXT", "%test.com", false).fragment());
+        assertEquals("@role:{adm*}", planner.plan("role", "TAG", "adm%", false).fragment());
+        assertEquals("-@role:{*min}", planner.plan("role", "TAG", "%min", true).fragment());
+
+        assertEquals("SUFFIX:TEXT_SUFFIX_TRIE", planner.plan("email", "TEXT", "%test.com", false).key());
+        assertEquals("SUFFIX:TAG_SUFFIX_SCAN", planner.plan("role", "TAG", "%min", true).key());
+    }
+
+    @Test
+    void narrowsGeneralPatterns() {
+        LikePlanner planner = new LikePlanner();
+
+        LikePlanner.Narrowing prefix = planner.narrow("Jo_n%", false);
+        assertEquals("Jo%", prefix.redisPattern());
+        assertTrue(prefix.clientPattern().matcher("John Smith").matches());
+        assertFalse(prefix.clientPattern().matcher("Jon").matches());
+
+        assertEquals("%hn", planner.narrow("J_hn", false).redisPattern());
+        assertEquals("%test%", planner.narrow("_%test%.com", false).redisPattern());
+        assertNull(planner.narrow("a_b", false).redisPattern());
+        assertEquals("GENERAL:CLIENT_FILTER", prefix.key());
+        assertEquals("GENERAL:CLIENT_SCAN", planner.narrow("a_b", false).key());
+    }
+
+    @Test
+    void clientPatternsMatchTokensIgnoringCaseLikeRediSearch() {
+        Pattern text = LikePlanner.toRegex("j_hn", false);
+        assertTrue(text.matcher("John").matches());
+        assertTrue(text.matcher("Mr. JOHN Smith").matches());
+        assertFalse(text.matcher("Johnny").matches());
+        assertFalse(text.matcher("Jo-hn").matches());
+        assertTrue(LikePlanner.toRegex("_%@test.com", false).matcher("Mail john@TEST.com").matches());
+
+        Pattern tag = LikePlanner.toRegex("us_r", true);
+        assertTrue(tag.matcher("admin, USER").matches());
+        assertFalse(tag.matcher("superuser").matches());
+    }
+
+    @Test
+    void countsPlansPerTranslationIncludingCachedOnes() throws Exception {
+        CohQLToRedisTranslator translator = new CohQLToRedisTranslator(Map.of("name", "TEXT"), "_idx");
+        translator.translateRequest("SELECT * FROM test WHERE name LIKE 'J_hn'");
+        translator.translateRequest("SELECT * FROM test WHERE name LIKE 'J_hn'");
+
+        Map<String, Long> counts = translator.getLikePlanner().getPlanCounts();
+        assertEquals(Long.valueOf(2), counts.get("GENERAL:CLIENT_FILTER"));
+        assertEquals(Long.valueOf(2), counts.get("SUFFIX:TEXT_SUFFIX_SCAN"));
+    }
+
+    @Test
+    void clientFilteredSearchReadsOnUntilThePageIsFull() {
+        RowSchema schema = RowSchema.from(Map.of("name", "TEXT"));
+        List<TypedRow> stored = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            TypedRow row = schema.newRow("test:" + i);
+            row.putString(0, i % 50 == 0 ? "John" : "Jahn" + i);
+            stored.add(row);
+        }
+        List<List<String>> sent = new ArrayList<>();
+        SearchTransport transport = new SearchTransport() {
+            @Override
+            public TypedSearchResults search(String index, SearchRequest request, Map<String, ?> params, RowSchema rows) {
+                sent.add(request.arguments());
+                SearchPage page = SearchPage.of(request.arguments());
+                int from = (int) Math.min(page.offset(), stored.size());
+                int to = (int) Math.min(page.offset() + page.count(), stored.size());
+                return new TypedSearchResults(stored.size(), stored.subList(from, to));
+            }
+
+            @Override
+            public StatefulRedisConnection<String, ByteBuffer> connection() {
+                throw new UnsupportedOperationException();
+            }
+        };
+        RedisQueryExecutor executor = new RedisQueryExecutor(
+                new CohQLToRedisTranslator(Map.of("name", "TEXT"), "_idx"), transport, "test_idx");
+        SearchRequest request = new SearchRequest("test_idx", "@name:*hn", Double.NaN,
+                List.of(new SearchRequest.ClientFilter("name", LikePlanner.toRegex("J_hn", false))),
+                List.of("LIMIT", "1", "3"), List.of());
+
+        TypedSearchResults results = executor.search(request);
+
+        assertEquals(List.of("test:50", "test:100", "test:150"), results.rows().stream().map(TypedRow::key).toList());
+        assertEquals(List.of(List.of("LIMIT", "0", "100"), List.of("LIMIT", "100", "100")), sent);
+        // 196 non-matching rows were read and dropped; the rest of the index is still counted
+        assertEquals(250 - 196, results.total());
+    }
+
+    @Test
+    void clientFiltersDropNonMatchingRows() {
+        RowSchema schema = RowSchema.from(Map.of("name", "TEXT"));
+        TypedRow john = schema.newRow("test:1");
+        john.putString(0, "John");
+        TypedRow jake = schema.newRow("test:4");
+        jake.putString(0, "Jake");
+        SearchRequest request = new SearchRequest("test_idx", "@name:*hn", Double.NaN,
+                List.of(new SearchRequest.ClientFilter("name", LikePlanner.toRegex("J_hn", false))));
+
+        TypedSearchResults filtered = RedisQueryExecutor.applyClientFilters(request,
+                new TypedSearchResults(2, List.of(john, jake)));
+
+        assertEquals(1, filtered.total());
+        assertEquals(List.of(john), filtered.rows());
+    }
+}
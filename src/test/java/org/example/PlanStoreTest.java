@@ -0,0 +1,149 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PlanStoreTest {
+
+    private static final Map<String, String> FIELD_TYPES = Map.of("name", "TEXT", "age", "NUMERIC");
+
+    private static final CompiledPlan PLAN = new CompiledPlan("SELECT * FROM test WHERE name LIKE 'J_hn'", true,
+            "SELECT * FROM test WHERE name LIKE 'J_hn'",
+            new SearchRequest("test_idx", "@name:*hn", Double.NaN,
+                    List.of(new SearchRequest.ClientFilter("name", LikePlanner.toRegex("J_hn", false)))),
+            List.of("GENERAL:CLIENT_FILTER", "SUFFIX:TEXT_SUFFIX_SCAN"), List.of("SUFFIX_LIKE:name"), 0);
+
+    @Test
+    void roundTripsPlansIntoWarmCache() throws Exception {
+        Path file = Files.createTempFile("plans", ".bin");
+        try {
+            CohQLToRedisTranslator source = new CohQLToRedisTranslator(FIELD_TYPES, "_idx");
+            source.preload(List.of(PLAN));
+            assertEquals(1, PlanStore.save(source, file));
+
+            CohQLToRedisTranslator target = new CohQLToRedisTranslator(FIELD_TYPES, "_idx");
+            assertEquals(1, PlanStore.load(target, file));
+
+            SearchRequest request = target.translateRequest(PLAN.cohql());
+            assertEquals("test_idx", request.index());
+            assertEquals("@name:*hn", request.query());
+            assertTrue(request.clientFilters().get(0).pattern().matcher("John").matches());
+            assertEquals(Long.valueOf(1), target.getLikePlanner().getPlanCounts().get("GENERAL:CLIENT_FILTER"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void ignoresPlansFromAnotherSchema() throws Exception {
+        Path file = Files.createTempFile("plans", ".bin");
+        try {
+            CohQLToRedisTranslator source = new CohQLToRedisTranslator(FIELD_TYPES, "_idx");
+            source.preload(List.of(PLAN));
+            PlanStore.save(source, file);
+
+            CohQLToRedisTranslator changed = new CohQLToRedisTranslator(Map.of("name", "TAG", "age", "NUMERIC"), "_idx");
+            assertEquals(0, PlanStore.load(changed, file));
+            assertTrue(changed.compiledPlans().isEmpty());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void reusesLoadedPlansUntilTheirStatisticsExpire() throws Exception {
+        Path file = Files.createTempFile("plans", ".bin");
+        try {
+            String cohql = "SELECT * FROM test WHERE age > 10";
+            CompiledPlan stored = new CompiledPlan(cohql, true, cohql, new SearchRequest("test_idx", "stored", 1.0),
+                    List.of(), List.of("OTHER:age"), System.currentTimeMillis());
+            CohQLToRedisTranslator source = new CohQLToRedisTranslator(FIELD_TYPES, "_idx", estimator(Long.MAX_VALUE));
+            source.preload(List.of(stored));
+            PlanStore.save(source, file);
+
+            CohQLToRedisTranslator warm = new CohQLToRedisTranslator(FIELD_TYPES, "_idx", estimator(Long.MAX_VALUE));
+            PlanStore.load(warm, file);
+            assertEquals("stored", warm.translateRequest(cohql).query());
+
+            CohQLToRedisTranslator expired = new CohQLToRedisTranslator(FIELD_TYPES, "_idx", estimator(0));
+            PlanStore.load(expired, file);
+            assertEquals("@age:[(10 +inf]", expired.translateRequest(cohql).query());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void startsColdFromACorruptFile() throws Exception {
+        Path file = Files.createTempFile("plans", ".bin");
+        try {
+            CohQLToRedisTranslator source = new CohQLToRedisTranslator(FIELD_TYPES, "_idx");
+            source.preload(List.of(PLAN));
+            PlanStore.save(source, file);
+            byte[] saved = Files.readAllBytes(file);
+
+            // The first string length follows magic, version, schema hash and plan count
+            byte[] negativeLength = saved.clone();
+            ByteBuffer.wrap(negativeLength).putInt(20, -5);
+            Files.write(file, negativeLength);
+            assertEquals(0, PlanStore.load(new CohQLToRedisTranslator(FIELD_TYPES, "_idx"), file));
+
+            String regex = PLAN.request().clientFilters().get(0).pattern().pattern();
+            String broken = new String(saved, StandardCharsets.ISO_8859_1)
+                    .replace(regex, ")" + regex.substring(1));
+            Files.write(file, broken.getBytes(StandardCharsets.ISO_8859_1));
+            CohQLToRedisTranslator target = new CohQLToRedisTranslator(FIELD_TYPES, "_idx");
+            assertEquals(0, PlanStore.load(target, file));
+            assertTrue(target.compiledPlans().isEmpty());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static CostEstimator estimator(long maxAgeNanos) {
+        return new CostEstimator(new IndexStatistics() {
+            @Override
+            public long documentCount(String index) {
+                return 1000;
+            }
+
+            @Override
+            public long count(String index, String query) {
+                return -1;
+            }
+
+            @Override
+            public long maxAgeNanos() {
+                return maxAgeNanos;
+            }
+        }, "test_idx");
+    }
+
+    @Test
+    void dropsLeastRecentlyUsedPlansBeyondCapacity() throws Exception {
+        CohQLToRedisTranslator translator = new CohQLToRedisTranslator(FIELD_TYPES, "_idx");
+        List<CompiledPlan> plans = new ArrayList<>();
+        for (int i = 0; i <= CohQLToRedisTranslator.MAX_CACHED_PLANS; i++) {
+            plans.add(new CompiledPlan("q" + i, true, "q" + i, PLAN.request(), List.of(), List.of(), 0));
+        }
+        translator.preload(plans.subList(0, 2));
+        // Touch the first plan so the second becomes the eldest
+        translator.translateRequest("q0");
+        translator.preload(plans.subList(2, plans.size()));
+
+        Collection<CompiledPlan> cached = translator.compiledPlans();
+        assertEquals(CohQLToRedisTranslator.MAX_CACHED_PLANS, cached.size());
+        assertTrue(cached.stream().anyMatch(plan -> plan.cohql().equals("q0")));
+        assertTrue(cached.stream().noneMatch(plan -> plan.cohql().equals("q1")));
+    }
+}
@@ -0,0 +1,37 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProfileReportTest {
+
+    @Test
+    void parsesIteratorTree() {
+        List<Object> profile = List.of(
+                List.of("Total profile time", "0.52"),
+                List.of("Parsing time", "0.04"),
+                List.of("Iterators profile", List.of(
+                        "Type", "INTERSECT", "Time", "0.21", "Counter", 2L, "Child iterators",
+                        List.of("Type", "TAG", "Term", "admin", "Time", "0.01", "Counter", 2L, "Size", 2L),
+                        List.of("Type", "WILDCARD", "Term", "*test.com", "Time", "0.18", "Counter", 3L))),
+                List.of("Result processors profile",
+                        List.of("Type", "Index", "Time", "0.22", "Counter", 2L),
+                        List.of("Type", "Loader", "Time", "0.05", "Counter", 2L)));
+
+        ProfileReport report = ProfileReport.parse(profile);
+
+        assertEquals(0.52, report.totalTimeMs());
+        assertEquals(0.04, report.parsingTimeMs());
+        ProfileReport.Stage root = report.iterators().get(0);
+        assertEquals("INTERSECT", root.type());
+        assertEquals(2, root.children().size());
+        assertEquals("*test.com", root.children().get(1).attributes().get("Term"));
+        assertEquals(0.18, root.children().get(1).timeMs());
+        assertEquals(3L, root.children().get(1).counter());
+        assertEquals(2, report.resultProcessors().size());
+        assertTrue(report.toString().contains("WILDCARD Term=*test.com time=0.18ms counter=3"));
+    }
+}
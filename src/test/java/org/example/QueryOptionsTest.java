@@ -0,0 +1,91 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryOptionsTest {
+
+    private static final Map<String, String> FIELD_TYPES = Map.of(
+            "name", "TEXT",
+            "status", "TAG",
+            "embedding", "VECTOR"
+    );
+
+    private final CohQLToRedisTranslator translator = new CohQLToRedisTranslator(FIELD_TYPES, "_idx");
+
+    @Test
+    void parsesHints() {
+        QueryOptions options = QueryOptions.parse(" TIMEOUT(50) nocontent, INFIELDS(name, title) SLOP(2) INORDER DIALECT(3) ");
+
+        assertEquals(Long.valueOf(50), options.timeoutMillis());
+        assertTrue(options.noContent());
+        assertEquals(List.of("name", "title"), options.inFields());
+        assertEquals(List.of("NOCONTENT", "INFIELDS", "2", "name", "title", "SLOP", "2", "INORDER", "TIMEOUT", "50"),
+                options.arguments());
+        assertEquals(Integer.valueOf(3), options.dialect());
+
+        assertThrows(IllegalArgumentException.class, () -> QueryOptions.parse("TIMEOUT"));
+        assertThrows(IllegalArgumentException.class, () -> QueryOptions.parse("NOCONTENT(1)"));
+        assertThrows(IllegalArgumentException.class, () -> QueryOptions.parse("FAST"));
+        assertThrows(IllegalArgumentException.class, () -> QueryOptions.parse("TIMEOUT(-1)"));
+        assertThrows(IllegalArgumentException.class, () -> QueryOptions.parse("TIMEOUT(50) + SLOP(1)"));
+    }
+
+    @Test
+    void appendsHintCommentsAsSearchOptions() throws Exception {
+        assertEquals("FT.SEARCH Orders_idx @status:{shipped} NOCONTENT TIMEOUT 50",
+                translator.translate("SELECT /*+ TIMEOUT(50) NOCONTENT */ * FROM Orders WHERE status = 'shipped'"));
+
+        SearchRequest request = translator.translateRequest(
+                "SELECT /*+ VERBATIM DIALECT(4) */ * FROM Orders WHERE knn(embedding, :vec, 5)");
+        assertEquals(List.of("VERBATIM", "LIMIT", "0", "5", "DIALECT", "4"), request.arguments());
+    }
+
+    @Test
+    void readsHintsOnlyDirectlyAfterSelect() throws Exception {
+        assertEquals(List.of("TIMEOUT", "5"),
+                translator.translateRequest("select /*+ timeout(5) */ * FROM Orders WHERE status = 'new'").arguments());
+        assertEquals(List.of(),
+                translator.translateRequest("SELECT * FROM Orders WHERE status = '/*+ TIMEOUT(5) */'").arguments());
+    }
+
+    @Test
+    void parsesHintNamesIndependentlyOfTheDefaultLocale() {
+        Locale previous = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            assertTrue(QueryOptions.parse("inorder").inOrder());
+        } finally {
+            Locale.setDefault(previous);
+        }
+    }
+
+    @Test
+    void validatesHintsAgainstTheSchema() {
+        assertThrows(IllegalArgumentException.class,
+                () -> translator.translate("SELECT /*+ INFIELDS(status) */ * FROM Orders WHERE name = 'x'"));
+        assertThrows(IllegalArgumentException.class,
+                () -> translator.translate("SELECT /*+ DIALECT(1) */ * FROM Orders WHERE knn(embedding, :vec, 5)"));
+        assertThrows(IllegalArgumentException.class,
+                () -> translator.translateRequest("SELECT /*+ NOCONTENT */ * FROM Orders WHERE name LIKE 'J_hn'"));
+    }
+
+    @Test
+    void defaultsFillOnlyUnsetOptions() throws Exception {
+        TenantQueryOptions tenants = new TenantQueryOptions(QueryOptions.timeout(1000));
+        tenants.put("acme", QueryOptions.timeout(100));
+
+        assertEquals(List.of("TIMEOUT", "100"),
+                translator.translateRequest("SELECT * FROM Orders WHERE status = 'new'", tenants.get("acme")).arguments());
+        assertEquals(List.of("TIMEOUT", "1000"),
+                translator.translateRequest("SELECT * FROM Orders WHERE status = 'new'", tenants.get("other")).arguments());
+        assertEquals(List.of("TIMEOUT", "20"),
+                translator.translateRequest("SELECT /*+ TIMEOUT(20) */ * FROM Orders WHERE status = 'new'",
+                        tenants.get("acme")).arguments());
+    }
+}
@@ -0,0 +1,87 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryResultCacheTest {
+
+    private static final RowSchema SCHEMA = RowSchema.from(Map.of("name", "TEXT"));
+
+    private static TypedSearchResults results(String... keys) {
+        return new TypedSearchResults(keys.length, Arrays.stream(keys).map(SCHEMA::newRow).toList());
+    }
+
+    @Test
+    void removalOnlyDropsEntriesContainingTheDocument() {
+        QueryResultCache cache = new QueryResultCache(10, Duration.ofMinutes(1));
+        cache.put("idx", "@name:John", results("test:1"), cache.generation("idx"));
+        cache.put("idx", "@name:Alice", results("test:2"), cache.generation("idx"));
+
+        new KeyspaceInvalidator(cache, Map.of("idx", "test:"), 100).onEvent("test:1", "del");
+
+        assertNull(cache.get("idx", "@name:John"));
+        assertNotNull(cache.get("idx", "@name:Alice"));
+    }
+
+    @Test
+    void removalDropsPartialPagesThatMayCountTheDocument() {
+        QueryResultCache cache = new QueryResultCache(10, Duration.ofMinutes(1));
+        cache.put("idx", "* LIMIT 0 1", new TypedSearchResults(2, List.of(SCHEMA.newRow("test:2"))), cache.generation("idx"));
+        cache.put("idx", "@name:Alice", results("test:3"), cache.generation("idx"));
+
+        new KeyspaceInvalidator(cache, Map.of("idx", "test:"), 100).onEvent("test:1", "del");
+
+        assertNull(cache.get("idx", "* LIMIT 0 1"));
+        assertNotNull(cache.get("idx", "@name:Alice"));
+    }
+
+    @Test
+    void writeDropsWholeIndex() {
+        QueryResultCache cache = new QueryResultCache(10, Duration.ofMinutes(1));
+        cache.put("idx", "@name:John", results("test:1"), cache.generation("idx"));
+        cache.put("other", "*", results("other:1"), cache.generation("other"));
+
+        new KeyspaceInvalidator(cache, Map.of("idx", "test:", "other", "other:"), 100).onEvent("test:9", "hset");
+
+        assertNull(cache.get("idx", "@name:John"));
+        assertNotNull(cache.get("other", "*"));
+    }
+
+    @Test
+    void escapesGlobCharactersInPrefixes() {
+        KeyspaceInvalidator invalidator = new KeyspaceInvalidator(
+                new QueryResultCache(10, Duration.ofMinutes(1)), Map.of("idx", "a*b?[c]\\:"), 100);
+
+        assertArrayEquals(new String[]{"__keyspace@*__:a\\*b\\?\\[c\\]\\\\:*"}, invalidator.patterns());
+    }
+
+    @Test
+    void staleGenerationIsNotCached() {
+        QueryResultCache cache = new QueryResultCache(10, Duration.ofMinutes(1));
+        long generation = cache.generation("idx");
+        cache.invalidateIndex("idx");
+        cache.put("idx", "*", results("test:1"), generation);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedAndExpires() throws InterruptedException {
+        QueryResultCache cache = new QueryResultCache(2, Duration.ofMillis(50));
+        cache.put("idx", "a", results("test:1"), 0);
+        cache.put("idx", "b", results("test:2"), 0);
+        cache.get("idx", "a");
+        cache.put("idx", "c", results("test:3"), 0);
+
+        assertNotNull(cache.get("idx", "a"));
+        assertNull(cache.get("idx", "b"));
+
+        Thread.sleep(80);
+        assertNull(cache.get("idx", "c"));
+    }
+}
@@ -0,0 +1,86 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RedisMutationExecutorTest {
+
+    private static final Map<String, String> FIELD_TYPES = Map.of(
+            "status", "TAG",
+            "name", "TEXT",
+            "amount", "NUMERIC",
+            "orderDate", "DATE"
+    );
+
+    private final CohQLToRedisTranslator translator = new CohQLToRedisTranslator(FIELD_TYPES, "_index");
+
+    @Test
+    void translatesDeleteAndUpdate() throws Exception {
+        MutationPlan delete = translator.translateMutation("DELETE FROM Orders WHERE status = 'CANCELLED'");
+        assertEquals(MutationPlan.Kind.DELETE, delete.kind());
+        assertEquals("Orders_index", delete.selection().index());
+        assertEquals("@status:{CANCELLED}", delete.selection().query());
+
+        MutationPlan update = translator.translateMutation(
+                "UPDATE Orders SET status = 'ARCHIVED', orderDate = '2025-06-01' WHERE amount < 10");
+        assertEquals(MutationPlan.Kind.UPDATE, update.kind());
+        assertEquals("@amount:[-inf (10]", update.selection().query());
+        assertEquals(Map.of("status", "ARCHIVED", "orderDate", "1748736000000"), update.assignments());
+    }
+
+    @Test
+    void rejectsNonLiteralAssignmentsAndSelects() {
+        assertThrows(UnsupportedOperationException.class,
+                () -> translator.translateMutation("UPDATE Orders SET amount = amount + 1 WHERE status = 'PAID'"));
+        assertThrows(UnsupportedOperationException.class,
+                () -> translator.translateMutation("SELECT * FROM Orders WHERE status = 'PAID'"));
+    }
+
+    @Test
+    void carriesLimitAndRejectsOrderBy() throws Exception {
+        assertEquals(MutationPlan.UNLIMITED,
+                translator.translateMutation("DELETE FROM Orders WHERE status = 'CANCELLED'").limit());
+        assertEquals(100, translator.translateMutation("DELETE FROM Orders WHERE status = 'CANCELLED' LIMIT 100").limit());
+        assertEquals(5, translator.translateMutation("UPDATE Orders SET status = 'ARCHIVED' WHERE amount < 10 LIMIT 5").limit());
+
+        assertThrows(UnsupportedOperationException.class,
+                () -> translator.translateMutation("DELETE FROM Orders WHERE status = 'CANCELLED' ORDER BY amount LIMIT 10"));
+        assertThrows(UnsupportedOperationException.class,
+                () -> translator.translateMutation("UPDATE Orders SET status = 'ARCHIVED' WHERE amount < 10 ORDER BY amount"));
+    }
+
+    @Test
+    void readsCursorPagesAndAppliesClientFilters() {
+        SearchRequest selection = new SearchRequest("Orders_index", "@name:*a*", Double.NaN,
+                List.of(new SearchRequest.ClientFilter("name", Pattern.compile("a.c"))));
+        List<Object> reply = List.of(
+                List.of(3L,
+                        List.of(bytes("__key"), bytes("order:1"), bytes("name"), bytes("abc")),
+                        List.of(bytes("__key"), bytes("order:2"), bytes("name"), bytes("abd")),
+                        List.of(bytes("__key"), bytes("order:3"), bytes("name"), bytes("axc"))),
+                42L);
+
+        RedisMutationExecutor.Cursor cursor = RedisMutationExecutor.cursor(reply, selection);
+        assertEquals(42L, cursor.id());
+        assertEquals(List.of("order:1", "order:3"), cursor.keys());
+    }
+
+    @Test
+    void encodesAssignmentsAsFieldValuePairs() {
+        ByteBuffer[] values = RedisMutationExecutor.assignmentValues(Map.of("status", "ARCHIVED"));
+        assertEquals(2, values.length);
+        assertEquals("status", StandardCharsets.UTF_8.decode(values[0]).toString());
+        assertEquals("ARCHIVED", StandardCharsets.UTF_8.decode(values[1]).toString());
+    }
+
+    private static ByteBuffer bytes(String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
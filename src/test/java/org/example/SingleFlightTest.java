@@ -0,0 +1,89 @@
+package org.example;
+
+import io.lettuce.core.RedisCommandTimeoutException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTest {
+
+    @Test
+    void concurrentCallersShareOneCall() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>(Duration.ofSeconds(5));
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(pool.submit(() -> flight.execute("q", () -> {
+                calls.incrementAndGet();
+                release.await();
+                return "result";
+            })));
+            while (flight.inFlightCount() == 0) Thread.onSpinWait();
+            for (int i = 0; i < 7; i++) {
+                results.add(pool.submit(() -> flight.execute("q", () -> {
+                    calls.incrementAndGet();
+                    return "other";
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("result", result.get());
+            }
+            assertEquals(1, calls.get());
+            assertEquals(0, flight.inFlightCount());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void followersReceiveLeaderException() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>(Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = pool.submit(() -> flight.execute("q", () -> {
+                release.await();
+                throw new UnsupportedOperationException("boom");
+            }));
+            while (flight.inFlightCount() == 0) Thread.onSpinWait();
+            Future<String> follower = pool.submit(() -> flight.execute("q", () -> "unused"));
+            Thread.sleep(50);
+            release.countDown();
+
+            ExecutionException e = assertThrows(ExecutionException.class, follower::get);
+            assertTrue(e.getCause() instanceof UnsupportedOperationException);
+            assertThrows(ExecutionException.class, leader::get);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void followerWaitIsBounded() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>(Duration.ofMillis(20));
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            pool.submit(() -> flight.execute("q", () -> {
+                release.await();
+                return "slow";
+            }));
+            while (flight.inFlightCount() == 0) Thread.onSpinWait();
+            assertThrows(RedisCommandTimeoutException.class, () -> flight.execute("q", () -> "unused"));
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+}
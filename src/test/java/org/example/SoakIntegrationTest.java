@@ -0,0 +1,85 @@
+package org.example;
+
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.protocol.ProtocolVersion;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Soak test against a local redis-stack container. Skipped unless {@code -Dsoak.documents=N} is
+ * given; other knobs: {@code soak.workers}, {@code soak.virtualThreads}, {@code soak.seconds},
+ * {@code soak.connections}, {@code soak.batchSize} and {@code soak.report} (JSON output path).
+ */
+@Testcontainers
+@EnabledIfSystemProperty(named = "soak.documents", matches = "\\d+")
+public class SoakIntegrationTest {
+
+    @Container
+    public static GenericContainer<?> redisContainer =
+            new GenericContainer<>(DockerImageName.parse("redis/redis-stack:latest"))
+                    .withExposedPorts(6379)
+                    .withStartupTimeout(Duration.ofSeconds(30));
+
+    private static final Map<String, String> FIELD_TYPES = Map.of(
+            "customer", "TEXT",
+            "status", "TAG",
+            "amount", "NUMERIC",
+            "orderDate", "DATE",
+            "location", "GEO"
+    );
+
+    private static final List<SoakRunner.Template> TEMPLATES = List.of(
+            new SoakRunner.Template("status", "SELECT * FROM Orders WHERE status = {status}", 40),
+            new SoakRunner.Template("status-range", "SELECT * FROM Orders WHERE status = {status} AND amount > {amount}", 25),
+            new SoakRunner.Template("date-sorted", "SELECT * FROM Orders WHERE orderDate >= {orderDate} ORDER BY amount DESC LIMIT 10", 15),
+            new SoakRunner.Template("customer-in", "SELECT * FROM Orders WHERE customer IN ({customer}, {customer}, {customer})", 10),
+            new SoakRunner.Template("nearby", "SELECT * FROM Orders WHERE within(location, {location}, 5, 'km')", 10)
+    );
+
+    @Test
+    void soak() throws Exception {
+        long documents = Long.getLong("soak.documents");
+        int connections = Integer.getInteger("soak.connections", 4);
+
+        RedisClient client = RedisClient.create("redis://" + redisContainer.getHost() + ":" + redisContainer.getMappedPort(6379));
+        client.setOptions(ClientOptions.builder().protocolVersion(ProtocolVersion.RESP2).build());
+        CohQLToRedisTranslator translator = new CohQLToRedisTranslator(FIELD_TYPES, "_index");
+        try (StatefulRedisConnection<String, ByteBuffer> connection = client.connect(ByteBufferCodec.INSTANCE);
+             BulkLoader loader = BulkLoader.open(translator, client, Map.of("Orders", "order:"), connections,
+                     Integer.getInteger("soak.batchSize", 1000))) {
+            new IndexDdl(translator, Map.of("Orders", "order:"), Set.of("amount"))
+                    .apply(connection, "CREATE INDEX orders ON Orders (customer, status, amount, orderDate, location)");
+
+            WorkloadGenerator generator = new WorkloadGenerator(FIELD_TYPES, 42, 1000, 0);
+            SoakRunner runner = new SoakRunner(translator, new RedisQueryExecutor(translator, connection, null), generator, TEMPLATES);
+            SoakReport.Load load = runner.load(loader, "order:", documents);
+
+            SoakReport report = runner.run(new SoakRunner.Config(
+                    Integer.getInteger("soak.workers", 64),
+                    Boolean.parseBoolean(System.getProperty("soak.virtualThreads", "true")),
+                    Duration.ofSeconds(10),
+                    Duration.ofSeconds(Long.getLong("soak.seconds", 60)),
+                    42), load);
+            report.write(Path.of(System.getProperty("soak.report", "target/soak-report.json")));
+
+            assertTrue(report.overall().queries() > 0);
+        } finally {
+            client.shutdown();
+        }
+    }
+}
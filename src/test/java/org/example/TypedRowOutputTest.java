@@ -0,0 +1,96 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TypedRowOutputTest {
+
+    private static final Map<String, String> FIELD_TYPES = Map.of(
+            "name", "TEXT",
+            "age", "NUMERIC",
+            "score", "NUMERIC",
+            "role", "TAG"
+    );
+
+    private static ByteBuffer bytes(String s) {
+        return ByteBuffer.wrap(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void document(TypedRowOutput output, String key, String... fields) {
+        output.set(bytes(key));
+        output.complete(1);
+        output.multi(fields.length);
+        for (String field : fields) {
+            output.set(bytes(field));
+            output.complete(2);
+        }
+        output.complete(1);
+    }
+
+    @Test
+    void decodesTypedColumns() {
+        RowSchema schema = RowSchema.from(FIELD_TYPES);
+        TypedRowOutput output = new TypedRowOutput(ByteBufferCodec.INSTANCE, schema);
+
+        output.multi(5);
+        output.set(2L);
+        output.complete(1);
+        document(output, "test:1", "name", "John", "age", "30", "score", "-12.25", "role", "user");
+        document(output, "test:2", "name", "Alice", "age", "25", "role", "user", "unknown", "x");
+        output.complete(0);
+
+        TypedSearchResults results = output.get();
+        assertEquals(2, results.total());
+        assertEquals(2, results.rows().size());
+
+        TypedRow john = results.rows().get(0);
+        assertEquals("test:1", john.key());
+        assertEquals("John", john.getString("name"));
+        assertEquals(30L, john.getLong("age"));
+        assertEquals(-12.25, john.getDouble("score"));
+
+        TypedRow alice = results.rows().get(1);
+        assertTrue(alice.isNull("score"));
+        assertSame(john.getString("role"), alice.getString("role"));
+    }
+
+    @Test
+    void decodesNoContentReply() {
+        TypedRowOutput output = new TypedRowOutput(ByteBufferCodec.INSTANCE, RowSchema.from(FIELD_TYPES));
+
+        output.multi(3);
+        output.set(2L);
+        output.complete(1);
+        output.set(bytes("test:1"));
+        output.complete(1);
+        output.set(bytes("test:2"));
+        output.complete(1);
+        output.complete(0);
+
+        TypedSearchResults results = output.get();
+        assertEquals(2, results.rows().size());
+        assertEquals("test:2", results.rows().get(1).key());
+        assertTrue(results.rows().get(1).isNull("name"));
+    }
+
+    @Test
+    void parsesNumbersWithoutLosingPrecision() {
+        RowSchema schema = RowSchema.from(FIELD_TYPES);
+        TypedRow row = schema.newRow("k");
+        int age = schema.slot(schema.column("age"));
+
+        AsciiBytes.decodeNumber(bytes("9007199254740993"), row, age);
+        assertEquals(9007199254740993L, row.getLong("age"));
+
+        AsciiBytes.decodeNumber(bytes("0.1"), row, age);
+        assertEquals(0.1, row.getDouble("age"));
+
+        AsciiBytes.decodeNumber(bytes("1.5e3"), row, age);
+        assertEquals(1500.0, row.getDouble("age"));
+    }
+}
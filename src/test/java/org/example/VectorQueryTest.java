@@ -0,0 +1,62 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VectorQueryTest {
+
+    private static final Map<String, String> FIELD_TYPES = Map.of(
+            "embedding", "VECTOR",
+            "category", "TAG",
+            "price", "NUMERIC"
+    );
+
+    private final CohQLToRedisTranslator translator = new CohQLToRedisTranslator(FIELD_TYPES, null);
+
+    @Test
+    void translatesKnnWithPrefilter() throws Exception {
+        SearchRequest request = translator.translateRequest(
+                "SELECT * FROM Products WHERE category = 'shoes' AND knn(embedding, :vec, 10)");
+        assertEquals("(@category:{shoes})=>[KNN 10 @embedding $vec]", request.query());
+        assertEquals(List.of("LIMIT", "0", "10", "DIALECT", "2"), request.arguments());
+        assertEquals(List.of("vec"), request.parameters());
+    }
+
+    @Test
+    void translatesBareKnnAndVectorRange() throws Exception {
+        assertEquals("*=>[KNN 5 @embedding $vec] LIMIT 0 5 DIALECT 2", translator.translate("knn(embedding, :vec, 5)"));
+        assertEquals("@embedding:[VECTOR_RANGE 0.2 $vec] DIALECT 2", translator.translate("vector_range(embedding, :vec, 0.2)"));
+    }
+
+    @Test
+    void rejectsNestedKnnAndNonVectorFields() {
+        assertThrows(UnsupportedOperationException.class,
+                () -> translator.translate("price > 1 OR knn(embedding, :vec, 5)"));
+        assertThrows(IllegalArgumentException.class,
+                () -> translator.translate("knn(price, :vec, 5)"));
+    }
+
+    @Test
+    void encodesVectorsAsLittleEndianFloat32() {
+        ByteBuffer blob = RedisQueryExecutor.encodeParameter(new float[]{1.0f, -2.5f});
+        assertEquals(8, blob.remaining());
+        blob.order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(1.0f, blob.getFloat(0));
+        assertEquals(-2.5f, blob.getFloat(4));
+        assertEquals(0x3F800000, Integer.reverseBytes(blob.order(ByteOrder.BIG_ENDIAN).getInt(0)));
+    }
+
+    @Test
+    void exposesKnnScoreAsNumericColumn() {
+        RowSchema schema = RowSchema.from(FIELD_TYPES);
+        int score = schema.column(RowSchema.scoreColumn("embedding"));
+        assertEquals(CohQLToRedisTranslator.FieldType.NUMERIC, schema.type(score));
+        assertThrows(IllegalArgumentException.class, () -> schema.column("embedding"));
+    }
+}
@@ -0,0 +1,67 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WorkloadGeneratorTest {
+
+    private static final Map<String, String> FIELD_TYPES = Map.of(
+            "status", "TAG",
+            "amount", "NUMERIC",
+            "orderDate", "DATE",
+            "location", "GEO",
+            "embedding", "VECTOR"
+    );
+
+    private final WorkloadGenerator generator = new WorkloadGenerator(FIELD_TYPES, 42, 10, 4);
+
+    @Test
+    void generatesReproducibleDocuments() {
+        Map<String, Object> document = generator.document("order:", 7);
+        Map<String, Object> again = generator.document("order:", 7);
+        assertEquals("order:7", document.get(BulkLoader.KEY_COLUMN));
+        assertEquals(document.get("status"), again.get("status"));
+        assertEquals(document.get("amount"), again.get("amount"));
+        assertArrayEquals((float[]) document.get("embedding"), (float[]) again.get("embedding"));
+        assertTrue(((String) document.get("status")).startsWith("status"));
+        assertEquals(4, ((float[]) document.get("embedding")).length);
+    }
+
+    @Test
+    void instantiatesTemplatesWithTypedLiterals() {
+        String cohql = generator.instantiate(
+                "SELECT * FROM Orders WHERE status = {status} AND amount > {amount} AND within(location, {location}, 5)",
+                new SplittableRandom(1));
+        assertTrue(cohql.matches("SELECT \\* FROM Orders WHERE status = 'status\\d' AND amount > \\d+ "
+                + "AND within\\(location, -?[\\d.]+, [\\d.]+, 5\\)"), cohql);
+        assertThrows(IllegalArgumentException.class,
+                () -> generator.instantiate("knn(embedding, {embedding}, 5)", new SplittableRandom(1)));
+    }
+
+    @Test
+    void drawsParameterValuesFromTheirFields() {
+        Map<String, Object> parameters = generator.parameters(Map.of("vec", "embedding"), new SplittableRandom(1));
+        assertEquals(4, ((float[]) parameters.get("vec")).length);
+    }
+
+    @Test
+    void writesMachineReadableReport() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1500);
+        SoakReport.Stats stats = new SoakReport.Stats("by \"status\"", 1, 0, Map.of(), 0.5,
+                SoakReport.Latency.of(histogram), SoakReport.Latency.of(new LatencyHistogram()), SoakReport.Latency.of(histogram));
+        SoakReport report = new SoakReport(java.time.Instant.EPOCH,
+                new SoakRunner.Config(8, true, Duration.ZERO, Duration.ofSeconds(2), 1), null, 2.0, stats, List.of(stats));
+        String json = report.toJson();
+        assertTrue(json.startsWith("{\"startedAt\":\"1970-01-01T00:00:00Z\",\"config\":{\"workers\":8"), json);
+        assertTrue(json.contains("\"name\":\"by \\\"status\\\"\""), json);
+        assertTrue(json.contains("\"translationNanos\":{\"count\":1,\"mean\":1500.0,\"p50\":1500"), json);
+        assertTrue(json.contains("\"statisticsNanos\":{\"count\":0,"), json);
+    }
+}